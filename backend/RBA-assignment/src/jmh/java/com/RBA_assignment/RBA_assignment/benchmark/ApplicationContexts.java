@@ -0,0 +1,37 @@
+package com.RBA_assignment.RBA_assignment.benchmark;
+
+import com.RBA_assignment.RBA_assignment.RbaAssignmentApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Boots the application against a private in-memory H2 database without touching Kafka:
+// listener containers stay stopped and topics are not created
+final class ApplicationContexts {
+
+    private ApplicationContexts() {
+    }
+
+    static ConfigurableApplicationContext start(String name, WebApplicationType webApplicationType, String... extraProperties) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.kafka.listener.auto-startup=false",
+                "--spring.kafka.admin.auto-create=false",
+                "--logging.level.com.RBA_assignment=WARN",
+                "--logging.level.org.hibernate=WARN"
+        ));
+        for (String property : extraProperties) {
+            arguments.add("--" + property);
+        }
+        // passed as command line arguments so they win over application.properties
+        return new SpringApplicationBuilder(RbaAssignmentApplication.class)
+                .web(webApplicationType)
+                .run(arguments.toArray(String[]::new));
+    }
+}
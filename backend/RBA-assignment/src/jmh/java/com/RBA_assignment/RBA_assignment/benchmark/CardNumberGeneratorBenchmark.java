@@ -0,0 +1,72 @@
+package com.RBA_assignment.RBA_assignment.benchmark;
+
+import com.RBA_assignment.RBA_assignment.service.CardNumberAllocator;
+import com.RBA_assignment.RBA_assignment.utils.CardNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// generate is a pure function, so threads running it never meet. What they share when issuing
+// cards is the allocator's block counter: allocateContended hands out numbers from one allocator
+// on four threads at once, with block reservations answered from memory instead of H2
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CardNumberGeneratorBenchmark {
+    private long sequence;
+
+    @Benchmark
+    public String generate() {
+        return CardNumberGenerator.generate(4, sequence++ % CardNumberGenerator.SEQUENCE_SPACE);
+    }
+
+    @Benchmark
+    public String allocate(ThreadAllocator allocator) {
+        return allocator.allocator.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String allocateContended(SharedAllocator allocator) {
+        return allocator.allocator.next();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadAllocator {
+        CardNumberAllocator allocator;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            allocator = newAllocator();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedAllocator {
+        CardNumberAllocator allocator;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            allocator = newAllocator();
+        }
+    }
+
+    // Block size as configured; the block sequence wraps before the number space runs out
+    private static CardNumberAllocator newAllocator() {
+        long blockSize = 1000;
+        AtomicLong blocks = new AtomicLong();
+        JdbcTemplate blockSequence = new JdbcTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T queryForObject(String sql, Class<T> requiredType) {
+                return (T) Long.valueOf(blocks.getAndIncrement() % (CardNumberGenerator.SEQUENCE_SPACE / blockSize));
+            }
+        };
+        return new CardNumberAllocator(blockSequence, 4, blockSize);
+    }
+}
@@ -0,0 +1,77 @@
+package com.RBA_assignment.RBA_assignment.benchmark;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.RBA_assignment.RBA_assignment.kafka.CardStatusDeserializer;
+import com.RBA_assignment.RBA_assignment.kafka.CardStatusSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+// Card status record value on both sides of Kafka: Spring's JsonSerializer and the listener's
+// String + readValue against CardStatusSerializer/CardStatusDeserializer. Setup prints the bytes
+// each format puts on the wire per event, counting the type header JsonSerializer adds
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CardStatusCodecBenchmark {
+    private static final String TOPIC = "card-status";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final JsonSerializer<CardStatusMessage> jsonSerializer = new JsonSerializer<>();
+    private final StringDeserializer stringDeserializer = new StringDeserializer();
+    private final CardStatusSerializer binarySerializer = new CardStatusSerializer();
+    private final CardStatusDeserializer deserializer = new CardStatusDeserializer();
+
+    private final CardStatusMessage message = new CardStatusMessage(Oibs.valid(4242), "BLOCKED");
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        RecordHeaders headers = new RecordHeaders();
+        json = jsonSerializer.serialize(TOPIC, headers, message);
+        binary = binarySerializer.serialize(TOPIC, message);
+        int headerBytes = 0;
+        for (Header header : headers) {
+            headerBytes += header.key().length() + header.value().length;
+        }
+        System.out.printf("JSON: %d value + %d header bytes per event, binary: %d bytes%n",
+                json.length, headerBytes, binary.length);
+    }
+
+    @Benchmark
+    public byte[] produceJson() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), message);
+    }
+
+    @Benchmark
+    public byte[] produceBinary() {
+        return binarySerializer.serialize(TOPIC, message);
+    }
+
+    // What the listeners did per record before the codec
+    @Benchmark
+    public CardStatusMessage consumeJsonAsString() throws Exception {
+        return objectMapper.readValue(stringDeserializer.deserialize(TOPIC, json), CardStatusMessage.class);
+    }
+
+    // JSON records still in the topic after the switch
+    @Benchmark
+    public CardStatusMessage consumeJson() {
+        return deserializer.deserialize(TOPIC, json);
+    }
+
+    @Benchmark
+    public CardStatusMessage consumeBinary() {
+        return deserializer.deserialize(TOPIC, binary);
+    }
+}
@@ -0,0 +1,69 @@
+package com.RBA_assignment.RBA_assignment.benchmark;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.RBA_assignment.RBA_assignment.kafka.CardStatusListener;
+import com.RBA_assignment.RBA_assignment.model.Card;
+import com.RBA_assignment.RBA_assignment.model.Client;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.RBA_assignment.RBA_assignment.utils.CardNumberGenerator;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// End-to-end message handling of the record listener against a local H2 database,
+// alternating statuses so every message results in real updates. Records arrive already
+// decoded, as from CardStatusDeserializer; CardStatusCodecBenchmark covers the decoding
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CardStatusListenerBenchmark {
+    private static final int CLIENTS = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private CardStatusListener listener;
+    private ConsumerRecord<String, CardStatusMessage>[] messages;
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = ApplicationContexts.start("listener-benchmark", WebApplicationType.NONE);
+        listener = context.getBean(CardStatusListener.class);
+        ClientRepository clientRepository = context.getBean(ClientRepository.class);
+        CardRepository cardRepository = context.getBean(CardRepository.class);
+
+        List<Client> clients = new ArrayList<>(CLIENTS);
+        List<Card> cards = new ArrayList<>(CLIENTS);
+        messages = new ConsumerRecord[CLIENTS * 2];
+        for (int i = 0; i < CLIENTS; i++) {
+            String oib = Oibs.valid(i);
+            clients.add(Client.builder().firstName("Bench").lastName("Client").oib(oib).status(Status.ACTIVE).build());
+            cards.add(Card.builder().cardNumber(CardNumberGenerator.generate(9, i)).oib(oib).status(Status.ACTIVE).build());
+            messages[i] = new ConsumerRecord<>("card-status", 0, i, oib, new CardStatusMessage(oib, "BLOCKED"));
+            messages[CLIENTS + i] = new ConsumerRecord<>("card-status", 0, CLIENTS + i, oib, new CardStatusMessage(oib, "ACTIVE"));
+        }
+        clientRepository.saveAll(clients);
+        cardRepository.saveAll(cards);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void listenCardStatus() {
+        listener.listenCardStatus(messages[next]);
+        next = (next + 1) % messages.length;
+    }
+}
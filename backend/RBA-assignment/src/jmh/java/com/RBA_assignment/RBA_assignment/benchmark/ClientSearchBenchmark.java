@@ -0,0 +1,70 @@
+package com.RBA_assignment.RBA_assignment.benchmark;
+
+import com.RBA_assignment.RBA_assignment.utils.NamePrefixIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Name prefix searches over a million clients: a one-letter prefix matching tens of thousands of
+// names, a common surname and a prefix that matches nothing, plus the insert and removal a client
+// write costs. Half the names are common, half unique like the load test's generated last names
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ClientSearchBenchmark {
+    private static final String[] FIRST_NAMES = {"Ana", "Ivan", "Marko", "Petra", "Luka", "Maja", "Josip", "Iva"};
+    private static final String[] LAST_NAMES = {"Horvat", "Kovačević", "Babić", "Marić", "Jurić", "Novak", "Knežević", "Vuković"};
+
+    @Param({"1000000"})
+    public int clients;
+
+    @Param({"20"})
+    public int limit;
+
+    private NamePrefixIndex index;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new NamePrefixIndex(8192);
+        Random random = new Random(42);
+        for (long id = 1; id <= clients; id++) {
+            index.load(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], lastName(random, id));
+        }
+        index.sort();
+        nextId = clients + 1;
+        System.out.printf("%d names, %d MiB%n", index.size(), index.heapBytes() >> 20);
+    }
+
+    @Benchmark
+    public long[] oneLetter() {
+        return index.search("k", limit);
+    }
+
+    @Benchmark
+    public long[] commonSurname() {
+        return index.search("horvat", limit);
+    }
+
+    @Benchmark
+    public long[] noMatch() {
+        return index.search("qx", limit);
+    }
+
+    // A client created and deleted again, so the index keeps its size across iterations
+    @Benchmark
+    public int addAndRemove() {
+        long id = nextId++;
+        index.add(id, "Ana", "Tst" + id);
+        index.remove(id, "Ana", "Tst" + id);
+        return index.size();
+    }
+
+    private static String lastName(Random random, long id) {
+        return random.nextBoolean() ? LAST_NAMES[random.nextInt(LAST_NAMES.length)] : "Tst" + Long.toString(id, 26);
+    }
+}
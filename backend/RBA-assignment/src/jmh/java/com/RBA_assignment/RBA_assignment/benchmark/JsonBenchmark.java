@@ -0,0 +1,51 @@
+package com.RBA_assignment.RBA_assignment.benchmark;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JsonBenchmark {
+    // Same defaults as the ObjectMapper Spring Boot configures for the application
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final ClientDTO clientDTO = new ClientDTO("Ivan", "Horvat", "85251569017", "active");
+    private final CardStatusMessage statusMessage = new CardStatusMessage("85251569017", "blocked");
+    private String clientJson;
+    private String statusJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        clientJson = objectMapper.writeValueAsString(clientDTO);
+        statusJson = objectMapper.writeValueAsString(statusMessage);
+    }
+
+    @Benchmark
+    public String serializeClient() throws Exception {
+        return objectMapper.writeValueAsString(clientDTO);
+    }
+
+    @Benchmark
+    public ClientDTO deserializeClient() throws Exception {
+        return objectMapper.readValue(clientJson, ClientDTO.class);
+    }
+
+    @Benchmark
+    public String serializeCardStatusMessage() throws Exception {
+        return objectMapper.writeValueAsString(statusMessage);
+    }
+
+    @Benchmark
+    public CardStatusMessage deserializeCardStatusMessage() throws Exception {
+        return objectMapper.readValue(statusJson, CardStatusMessage.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.RBA_assignment.RBA_assignment.benchmark;
+
+import com.RBA_assignment.RBA_assignment.utils.LongLongHashMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// OIB lookups in the primitive index map against a HashMap keyed by the OIB string, which is
+// what an object-based index would hold. Setup prints the retained heap of each at this size
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LookupIndexBenchmark {
+    private static final int PROBES = 1 << 16;
+
+    @Param({"3000000"})
+    public int entries;
+
+    private LongLongHashMap primitive;
+    private Map<String, Long> boxed;
+    private String[] hits;
+    private String[] misses;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        primitive = measure("LongLongHashMap", () -> {
+            LongLongHashMap map = new LongLongHashMap(entries);
+            for (int i = 0; i < entries; i++) {
+                map.put(Long.parseLong(Oibs.valid(i)), (long) i << 4 | 2);
+            }
+            return map;
+        });
+        boxed = measure("HashMap<String, Long>", () -> {
+            Map<String, Long> map = new HashMap<>(entries * 4 / 3 + 1);
+            for (int i = 0; i < entries; i++) {
+                map.put(Oibs.valid(i), (long) i << 4 | 2);
+            }
+            return map;
+        });
+        System.out.printf("LongLongHashMap table: %d MiB%n", primitive.tableBytes() >> 20);
+
+        hits = new String[PROBES];
+        misses = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            hits[i] = Oibs.valid((long) i * 7919 % entries);
+            misses[i] = Oibs.valid(entries + i);
+        }
+    }
+
+    @Benchmark
+    public long primitiveHit() {
+        return primitive.get(Long.parseLong(hits[next++ & (PROBES - 1)]), -1);
+    }
+
+    @Benchmark
+    public long primitiveMiss() {
+        return primitive.get(Long.parseLong(misses[next++ & (PROBES - 1)]), -1);
+    }
+
+    @Benchmark
+    public Long boxedHit() {
+        return boxed.get(hits[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public Long boxedMiss() {
+        return boxed.get(misses[next++ & (PROBES - 1)]);
+    }
+
+    private static <T> T measure(String name, Supplier<T> build) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        T built = build.get();
+        System.gc();
+        long after = memory.getHeapMemoryUsage().getUsed();
+        System.out.printf("%s: %d MiB retained%n", name, (after - before) >> 20);
+        return built;
+    }
+}
@@ -0,0 +1,34 @@
+package com.RBA_assignment.RBA_assignment.benchmark;
+
+import com.RBA_assignment.RBA_assignment.dto.CardDTO;
+import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.mapper.CardMapper;
+import com.RBA_assignment.RBA_assignment.mapper.ClientMapper;
+import com.RBA_assignment.RBA_assignment.model.Card;
+import com.RBA_assignment.RBA_assignment.model.Client;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapperBenchmark {
+    private final ClientDTO clientDTO = new ClientDTO("Ivan", "Horvat", "85251569017", "active");
+    private final CardDTO cardDTO = new CardDTO("4659135567284427", "85251569017", "blocked");
+
+    @Benchmark
+    public ClientDTO clientRoundTrip() {
+        Client client = ClientMapper.dtoToClient(clientDTO);
+        return ClientMapper.clientToDto(client);
+    }
+
+    @Benchmark
+    public CardDTO cardRoundTrip() {
+        Card card = CardMapper.dtoToCard(cardDTO);
+        return CardMapper.cardToDto(card);
+    }
+}
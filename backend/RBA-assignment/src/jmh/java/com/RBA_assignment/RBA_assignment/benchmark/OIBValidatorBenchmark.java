@@ -0,0 +1,24 @@
+package com.RBA_assignment.RBA_assignment.benchmark;
+
+import com.RBA_assignment.RBA_assignment.validator.OIBValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OIBValidatorBenchmark {
+    private final OIBValidator validator = new OIBValidator();
+
+    @Param({"85251569017", "85251569018", "8525156901A"})
+    public String oib;
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(oib, null);
+    }
+}
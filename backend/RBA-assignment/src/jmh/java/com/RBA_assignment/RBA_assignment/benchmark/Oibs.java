@@ -0,0 +1,25 @@
+package com.RBA_assignment.RBA_assignment.benchmark;
+
+// Deterministic valid OIBs for seeding benchmark data
+final class Oibs {
+
+    private Oibs() {
+    }
+
+    static String valid(long index) {
+        char[] digits = new char[11];
+        long value = 1_000_000_000L + index;
+        for (int i = 9; i >= 0; i--) {
+            digits[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        int checksum = 10;
+        for (int i = 0; i < 10; i++) {
+            checksum = (checksum + (digits[i] - '0')) % 10;
+            if (checksum == 0) checksum = 10;
+            checksum = (checksum * 2) % 11;
+        }
+        digits[10] = (char) ('0' + (11 - checksum) % 10);
+        return new String(digits);
+    }
+}
@@ -0,0 +1,43 @@
+package com.RBA_assignment.RBA_assignment.benchmark;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StatusParsingBenchmark {
+    @Param({"ACTIVE", " blocked "})
+    public String status;
+
+    private ClientDTO clientDTO;
+    private CardStatusMessage statusMessage;
+
+    @Setup
+    public void setUp() {
+        clientDTO = new ClientDTO("Ivan", "Horvat", "85251569017", status.trim());
+        statusMessage = new CardStatusMessage("85251569017", status.trim());
+    }
+
+    @Benchmark
+    public Status fromString() {
+        return Status.fromString(status);
+    }
+
+    @Benchmark
+    public Status clientDtoGetStatus() {
+        return clientDTO.getStatus();
+    }
+
+    @Benchmark
+    public Status cardStatusMessageGetStatus() {
+        return statusMessage.getStatus();
+    }
+}
@@ -0,0 +1,143 @@
+package com.RBA_assignment.RBA_assignment.benchmark;
+
+import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.model.Card;
+import com.RBA_assignment.RBA_assignment.model.Client;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.RBA_assignment.RBA_assignment.repository.OutboxEventRepository;
+import com.RBA_assignment.RBA_assignment.service.OutboxRelay;
+import com.RBA_assignment.RBA_assignment.service.OutboxService;
+import com.RBA_assignment.RBA_assignment.utils.CardNumberGenerator;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Platform against virtual thread mode under concurrency. relayCardRequests drains a burst of
+// outbox card requests to a card service stub that answers after a fixed delay,
+// concurrentLookups fires a burst of client lookups at the servlet container.
+// Both modes relay on as many workers as the card service bulkhead admits (20), so the stub
+// delay alone puts the relay floor at REQUESTS * 20 ms / 20 = 500 ms; anything above it is CPU.
+// Read results against the core count: on one core both benchmarks are CPU-bound and the
+// modes come out within each other's error
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 6, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VirtualThreadsBenchmark {
+    private static final int REQUESTS = 500;
+    private static final long CARD_SERVICE_LATENCY_MS = 20;
+    private static final byte[] CARD_SERVICE_RESPONSE = "{}".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    private HttpServer cardService;
+    private ConfigurableApplicationContext context;
+    private OutboxService outboxService;
+    private OutboxRelay outboxRelay;
+    private OutboxEventRepository outboxEventRepository;
+    private HttpClient httpClient;
+    private List<ClientDTO> clients;
+    private List<URI> lookups;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        cardService = HttpServer.create(new InetSocketAddress("localhost", 0), REQUESTS);
+        cardService.setExecutor(Executors.newCachedThreadPool());
+        cardService.createContext("/card-request", exchange -> {
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(CARD_SERVICE_LATENCY_MS);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, CARD_SERVICE_RESPONSE.length);
+                exchange.getResponseBody().write(CARD_SERVICE_RESPONSE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        cardService.start();
+
+        context = ApplicationContexts.start("threads-" + mode, WebApplicationType.SERVLET,
+                "server.port=0",
+                "spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                "card.request.url=http://localhost:" + cardService.getAddress().getPort() + "/card-request",
+                // Only the benchmark drains the outbox
+                "outbox.relay.interval-ms=3600000");
+        outboxService = context.getBean(OutboxService.class);
+        outboxRelay = context.getBean(OutboxRelay.class);
+        outboxEventRepository = context.getBean(OutboxEventRepository.class);
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        // Requested OIBs have no card yet, looked up ones are seeded with a client and a card
+        clients = new ArrayList<>(REQUESTS);
+        List<Client> seeded = new ArrayList<>(REQUESTS);
+        List<Card> cards = new ArrayList<>(REQUESTS);
+        lookups = new ArrayList<>(REQUESTS);
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1/clients/";
+        for (int i = 0; i < REQUESTS; i++) {
+            clients.add(new ClientDTO("Bench", "Client", Oibs.valid(i), "ACTIVE"));
+            String oib = Oibs.valid(REQUESTS + i);
+            seeded.add(Client.builder().firstName("Bench").lastName("Client").oib(oib).status(Status.ACTIVE).build());
+            cards.add(Card.builder().cardNumber(CardNumberGenerator.generate(9, i)).oib(oib).status(Status.ACTIVE).build());
+            lookups.add(URI.create(base + oib));
+        }
+        context.getBean(ClientRepository.class).saveAll(seeded);
+        context.getBean(CardRepository.class).saveAll(cards);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        cardService.stop(0);
+    }
+
+    @Benchmark
+    public long relayCardRequests(CardRequests requests) {
+        outboxRelay.relay();
+        return outboxEventRepository.count();
+    }
+
+    @Benchmark
+    public int concurrentLookups() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(REQUESTS);
+        for (URI uri : lookups) {
+            responses.add(httpClient.sendAsync(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        return ok;
+    }
+
+    // Refills the outbox before each relay run, outside the measured time
+    @State(Scope.Benchmark)
+    public static class CardRequests {
+        @Setup(Level.Invocation)
+        public void enqueue(VirtualThreadsBenchmark benchmark) {
+            for (ClientDTO client : benchmark.clients) {
+                benchmark.outboxService.enqueueCardRequest(client);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.RBA_assignment.RBA_assignment.loadtest;
+
+import java.util.Arrays;
+
+// Latency samples of one operation. Every sample is kept, so the reported percentiles are exact
+final class LatencyRecorder {
+    private final String name;
+    private long[] samples = new long[4096];
+    private int count;
+    private long errors;
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    synchronized void error() {
+        errors++;
+    }
+
+    synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Summary(name, count, errors, round(count / seconds),
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                millis(percentile(sorted, 0.999)), millis(count == 0 ? 0 : sorted[count - 1]));
+    }
+
+    // Nearest-rank percentile
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    // Throughput counts successful operations per second of the measured window
+    record Summary(String name, long count, long errors, double throughput,
+                   double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+}
@@ -0,0 +1,421 @@
+package com.RBA_assignment.RBA_assignment.loadtest;
+
+import com.RBA_assignment.RBA_assignment.RbaAssignmentApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Boots the application against an embedded Kafka broker and a private in-memory H2 database and
+// drives a weighted mix of client creates, client reads, card requests and card status events at a
+// fixed rate. Reports latency percentiles per endpoint, card status event-to-apply latency and
+// throughput, printed and written as JSON so runs can be compared over time:
+//
+//   mvn -Ploadtest verify -DskipTests -Dload.args="rate=500 duration=60 --card-status.listener.mode=batch"
+//
+// Options are key=value (see Options); arguments starting with -- are passed to the application.
+// The generator is open loop: requests start when they are due whether or not earlier ones have
+// returned, and latency is measured from the due time, so a stalled server shows up in the
+// percentiles instead of quietly lowering the offered rate
+public final class LoadTest {
+    private static final String CLIENTS = "/api/v1/clients";
+    private static final String CARD_REQUEST = "/api/v1/card-request";
+    private static final String CARD_STATUS = "/api/v1/card-status";
+    private static final String CARD_ISSUANCE = "/api/v1/cards/issuance";
+    // OIB index ranges, far enough apart to never meet
+    private static final long CREATED_OIBS = 100_000_000L;
+    private static final long CARD_REQUEST_OIBS = 200_000_000L;
+
+    private final Options options;
+    private final String baseUrl;
+    private final StatusApplyProbe probe;
+    private final HttpClient http;
+    private final ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight;
+    private final AtomicLong createdOibs = new AtomicLong(CREATED_OIBS);
+    private final AtomicLong cardRequestOibs = new AtomicLong(CARD_REQUEST_OIBS);
+    private long statusEvents;
+    private final Map<Operation, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final LatencyRecorder statusApply = new LatencyRecorder("card status event -> DB apply");
+
+    private LoadTest(Options options, String baseUrl, StatusApplyProbe probe) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.probe = probe;
+        this.inFlight = new Semaphore(options.maxInFlight());
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(requests)
+                .build();
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new LatencyRecorder(operation.label));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        // A devtools restart would boot the application a second time in another class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 1);
+        broker.afterPropertiesSet();
+        int port = freePort();
+        try (ConfigurableApplicationContext context = start(broker.getBrokersAsString(), port, options)) {
+            LoadTest test = new LoadTest(options, "http://localhost:" + port, context.getBean(StatusApplyProbe.class));
+            test.seed();
+            Map<String, Object> result = test.run();
+            test.print(result, System.out);
+            Path out = Path.of(options.out());
+            Files.createDirectories(out.toAbsolutePath().getParent());
+            test.objectMapper.writeValue(out.toFile(), result);
+            System.out.println("Result written to " + out.toAbsolutePath());
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String brokers, int port, Options options) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.kafka.bootstrap-servers=" + brokers,
+                // Events posted before the listener is assigned its partitions are still consumed
+                "--spring.kafka.consumer.auto-offset-reset=earliest",
+                // Card requests queued for new clients come back to this instance in place of the card service
+                "--card.request.url=http://localhost:" + port + CARD_REQUEST,
+                "--logging.level.com.RBA_assignment=WARN",
+                "--logging.level.org.hibernate=WARN",
+                "--logging.level.org.apache.kafka=WARN",
+                "--logging.level.kafka=WARN"
+        ));
+        arguments.addAll(options.applicationArguments());
+        // passed as command line arguments so they win over application.properties
+        return new SpringApplicationBuilder(RbaAssignmentApplication.class, StatusApplyProbe.class)
+                .run(arguments.toArray(String[]::new));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // Clients that reads and status events are aimed at, imported in one request and given a card
+    // each, so status events update both rows
+    private void seed() throws IOException, InterruptedException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < options.clients(); i++) {
+            body.append(clientJson(oib(i), i)).append('\n');
+        }
+        expectOk(HttpRequest.newBuilder(URI.create(baseUrl + CLIENTS + "/bulk"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build());
+        JsonNode job = objectMapper.readTree(expectOk(HttpRequest.newBuilder(URI.create(baseUrl + CARD_ISSUANCE + "?status=ACTIVE"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build()));
+        while ("RUNNING".equals(job.path("state").asText())) {
+            Thread.sleep(200);
+            job = objectMapper.readTree(expectOk(HttpRequest.newBuilder(URI.create(baseUrl + CARD_ISSUANCE + "/" + job.path("id").asLong()))
+                    .GET()
+                    .build()));
+        }
+        if (!"COMPLETED".equals(job.path("state").asText())) {
+            throw new IllegalStateException("Issuing cards to seeded clients failed: " + job);
+        }
+        System.out.printf("Seeded %d clients with cards%n", options.clients());
+    }
+
+    private String expectOk(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new IllegalStateException("Seeding failed, " + request.uri() + " answered " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private Map<String, Object> run() throws InterruptedException {
+        Operation[] mix = options.operations();
+        SplittableRandom random = new SplittableRandom(options.seed());
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmup());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.duration());
+        probe.start(statusApply, measureFrom);
+        System.out.printf("Offering %d requests/s for %ds after %ds warmup%n", options.rate(), options.duration(), options.warmup());
+
+        for (long i = 0; ; i++) {
+            long due = start + (long) (i * 1_000_000_000.0 / options.rate());
+            if (due - end >= 0) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = mix[random.nextInt(mix.length)];
+            Call call = call(operation, random, due);
+            LatencyRecorder recorder = due - measureFrom >= 0 ? recorders.get(operation) : null;
+            if (!inFlight.tryAcquire()) {
+                // Too far behind to keep every request open; counted against the endpoint
+                failed(call, due, recorder);
+                continue;
+            }
+            requests.execute(() -> {
+                try {
+                    send(call, due, recorder);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        // Requests still open at the end belong to the measured window
+        inFlight.acquire(options.maxInFlight());
+        long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.drain());
+        while (probe.pending() > 0 && System.nanoTime() - drainUntil < 0) {
+            Thread.sleep(50);
+        }
+        double seconds = options.duration();
+        List<LatencyRecorder.Summary> endpoints = new ArrayList<>();
+        long completed = 0;
+        for (LatencyRecorder recorder : recorders.values()) {
+            LatencyRecorder.Summary summary = recorder.summarize(seconds);
+            endpoints.add(summary);
+            completed += summary.count();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("startedAt", startedAt.toString());
+        result.put("options", options);
+        result.put("throughput", Math.round(completed / seconds * 100) / 100.0);
+        result.put("endpoints", endpoints);
+        result.put("statusApply", statusApply.summarize(seconds));
+        result.put("statusEventsNotApplied", probe.pending());
+        return result;
+    }
+
+    private Call call(Operation operation, SplittableRandom random, long due) {
+        return switch (operation) {
+            case CREATE_CLIENT -> {
+                long index = createdOibs.getAndIncrement();
+                yield new Call(operation, post(CLIENTS, clientJson(oib(index), index)), null);
+            }
+            case GET_CLIENT -> new Call(operation, HttpRequest.newBuilder(URI.create(baseUrl + CLIENTS + "/" + oib(random.nextInt(options.clients()))))
+                    .timeout(Duration.ofSeconds(options.timeout()))
+                    .GET()
+                    .build(), null);
+            case CARD_REQUEST -> {
+                long index = cardRequestOibs.getAndIncrement();
+                yield new Call(operation, post(CARD_REQUEST, clientJson(oib(index), index)), null);
+            }
+            case CARD_STATUS -> {
+                // Rounds over the seeded clients, alternating their status so every event changes the row
+                long event = statusEvents++;
+                String oib = oib(event % options.clients());
+                String status = (event / options.clients()) % 2 == 0 ? "BLOCKED" : "ACTIVE";
+                probe.sent(oib, due);
+                yield new Call(operation, post(CARD_STATUS, "{\"oib\":\"" + oib + "\",\"status\":\"" + status + "\"}"), oib);
+            }
+        };
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(options.timeout()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private void send(Call call, long due, LatencyRecorder recorder) {
+        int status;
+        try {
+            status = http.send(call.request(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException | InterruptedException e) {
+            status = -1;
+        }
+        long latency = System.nanoTime() - due;
+        if (status < 200 || status >= 300) {
+            failed(call, due, recorder);
+        } else if (recorder != null) {
+            recorder.record(latency);
+        }
+    }
+
+    private void failed(Call call, long due, LatencyRecorder recorder) {
+        if (call.statusOib() != null) {
+            probe.failed(call.statusOib(), due);
+        }
+        if (recorder != null) {
+            recorder.error();
+        }
+    }
+
+    private void print(Map<String, Object> result, PrintStream out) {
+        out.println();
+        out.printf("%-34s %8s %7s %9s %9s %9s %9s %9s%n", "", "count", "errors", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        @SuppressWarnings("unchecked")
+        List<LatencyRecorder.Summary> endpoints = (List<LatencyRecorder.Summary>) result.get("endpoints");
+        for (LatencyRecorder.Summary summary : endpoints) {
+            print(summary, out);
+        }
+        print((LatencyRecorder.Summary) result.get("statusApply"), out);
+        out.printf("%nThroughput: %s requests/s (offered %d), status events not applied: %s%n",
+                result.get("throughput"), options.rate(), result.get("statusEventsNotApplied"));
+    }
+
+    private static void print(LatencyRecorder.Summary summary, PrintStream out) {
+        out.printf("%-34s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", summary.name(), summary.count(), summary.errors(),
+                summary.throughput(), summary.p50Ms(), summary.p99Ms(), summary.p999Ms(), summary.maxMs());
+    }
+
+    private static String clientJson(String oib, long index) {
+        return "{\"firstName\":\"Load\",\"lastName\":\"" + lastName(index) + "\",\"oib\":\"" + oib + "\",\"status\":\"ACTIVE\"}";
+    }
+
+    // Letters only, as client names must be; spreads rows over the last name index
+    private static String lastName(long index) {
+        StringBuilder name = new StringBuilder("Tst");
+        do {
+            name.append((char) ('a' + index % 26));
+            index /= 26;
+        } while (index > 0);
+        return name.toString();
+    }
+
+    // Deterministic valid OIB for an index below 9 * 10^9
+    static String oib(long index) {
+        char[] digits = new char[11];
+        long value = 1_000_000_000L + index;
+        for (int i = 9; i >= 0; i--) {
+            digits[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        int checksum = 10;
+        for (int i = 0; i < 10; i++) {
+            checksum = (checksum + (digits[i] - '0')) % 10;
+            if (checksum == 0) checksum = 10;
+            checksum = (checksum * 2) % 11;
+        }
+        digits[10] = (char) ('0' + (11 - checksum) % 10);
+        return new String(digits);
+    }
+
+    // statusOib is set for card status events, whose apply the probe waits for
+    private record Call(Operation operation, HttpRequest request, String statusOib) {
+    }
+
+    enum Operation {
+        CREATE_CLIENT("create", "POST " + CLIENTS),
+        GET_CLIENT("get", "GET " + CLIENTS + "/{oib}"),
+        CARD_REQUEST("card", "POST " + LoadTest.CARD_REQUEST),
+        CARD_STATUS("status", "POST " + LoadTest.CARD_STATUS);
+
+        private final String key;
+        private final String label;
+
+        Operation(String key, String label) {
+            this.key = key;
+            this.label = label;
+        }
+    }
+
+    // rate: requests per second over all endpoints; duration, warmup, drain (wait for status events
+    // still being applied) and timeout in seconds; mix: relative weights per operation; clients:
+    // seeded clients; maxInFlight: open requests beyond which new ones count as errors
+    record Options(int rate, int duration, int warmup, int drain, int timeout, String mix, int clients,
+                   int maxInFlight, long seed, String out, List<String> applicationArguments) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new LinkedHashMap<>(Map.of(
+                    "rate", "200",
+                    "duration", "60",
+                    "warmup", "10",
+                    "drain", "30",
+                    "timeout", "10",
+                    "mix", "create=1,get=6,card=1,status=2",
+                    "clients", "10000",
+                    "maxInFlight", "2000",
+                    "seed", "42",
+                    "out", "target/load-result.json"));
+            List<String> applicationArguments = new ArrayList<>();
+            for (String arg : args) {
+                if (arg.startsWith("--")) {
+                    applicationArguments.add(arg);
+                    continue;
+                }
+                int separator = arg.indexOf('=');
+                if (separator < 0 || !values.containsKey(arg.substring(0, separator))) {
+                    throw new IllegalArgumentException("Unknown option " + arg + ", expected one of " + values.keySet());
+                }
+                values.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+            return new Options(
+                    Integer.parseInt(values.get("rate")),
+                    Integer.parseInt(values.get("duration")),
+                    Integer.parseInt(values.get("warmup")),
+                    Integer.parseInt(values.get("drain")),
+                    Integer.parseInt(values.get("timeout")),
+                    values.get("mix"),
+                    Integer.parseInt(values.get("clients")),
+                    Integer.parseInt(values.get("maxInFlight")),
+                    Long.parseLong(values.get("seed")),
+                    values.get("out"),
+                    List.copyOf(applicationArguments));
+        }
+
+        // One slot per unit of weight, so picking an operation is a single random index
+        Operation[] operations() {
+            List<Operation> slots = new ArrayList<>();
+            for (String part : mix.split(",")) {
+                String[] entry = part.trim().split("=");
+                Operation operation = null;
+                for (Operation candidate : Operation.values()) {
+                    if (candidate.key.equals(entry[0])) {
+                        operation = candidate;
+                    }
+                }
+                if (operation == null || entry.length != 2) {
+                    throw new IllegalArgumentException("Invalid mix entry " + part + ", expected create, get, card or status=weight");
+                }
+                for (int i = Integer.parseInt(entry[1]); i > 0; i--) {
+                    slots.add(operation);
+                }
+            }
+            if (slots.isEmpty()) {
+                throw new IllegalArgumentException("Mix " + mix + " has no operations");
+            }
+            return slots.toArray(Operation[]::new);
+        }
+    }
+}
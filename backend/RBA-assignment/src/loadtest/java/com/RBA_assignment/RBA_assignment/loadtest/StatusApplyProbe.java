@@ -0,0 +1,45 @@
+package com.RBA_assignment.RBA_assignment.loadtest;
+
+import com.RBA_assignment.RBA_assignment.dto.ChangeEvent;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Registered into the application under load to time card status events from the moment they were
+// due to be posted until the transaction applying them has committed. When several events for one
+// OIB are waiting, the oldest one is timed, so coalescing listener modes are not flattered
+class StatusApplyProbe {
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private volatile LatencyRecorder recorder;
+    private volatile long measureFrom = Long.MAX_VALUE;
+
+    void start(LatencyRecorder recorder, long measureFrom) {
+        this.recorder = recorder;
+        this.measureFrom = measureFrom;
+    }
+
+    void sent(String oib, long dueNanos) {
+        pending.putIfAbsent(oib, dueNanos);
+    }
+
+    void failed(String oib, long dueNanos) {
+        pending.remove(oib, dueNanos);
+    }
+
+    int pending() {
+        return pending.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void applied(ChangeEvent event) {
+        if (event.getType() != ChangeEvent.Type.STATUS_CHANGED) {
+            return;
+        }
+        long now = System.nanoTime();
+        Long due = pending.remove(event.getOib());
+        if (due != null && due - measureFrom >= 0) {
+            recorder.record(now - due);
+        }
+    }
+}
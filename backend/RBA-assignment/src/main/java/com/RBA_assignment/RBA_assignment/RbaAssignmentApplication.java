@@ -2,8 +2,10 @@ package com.RBA_assignment.RBA_assignment;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class RbaAssignmentApplication {
 
 	public static void main(String[] args) {
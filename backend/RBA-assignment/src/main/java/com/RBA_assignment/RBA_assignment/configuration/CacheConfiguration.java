@@ -0,0 +1,37 @@
+package com.RBA_assignment.RBA_assignment.configuration;
+
+import com.RBA_assignment.RBA_assignment.service.LookupCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+@Configuration
+public class CacheConfiguration {
+
+    // Fixed set of caches; the spec bounds size and age and turns on hit/miss statistics
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${lookup-cache.spec}") String spec,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+                LookupCache.CLIENTS_BY_OIB,
+                LookupCache.CARDS_BY_OIB,
+                LookupCache.CARD_OIBS_BY_NUMBER
+        );
+        if (virtualThreads) {
+            // A synchronous miss loads inside the map's bin lock, which pins a virtual thread for
+            // the whole database call. Async mode only parks a future there, runs the loader on
+            // its own virtual thread and lets concurrent callers for the key wait on the future
+            cacheManager.setCaffeine(Caffeine.from(spec).executor(Executors.newVirtualThreadPerTaskExecutor()));
+            cacheManager.setAsyncCacheMode(true);
+        } else {
+            cacheManager.setCacheSpecification(spec);
+        }
+        return cacheManager;
+    }
+}
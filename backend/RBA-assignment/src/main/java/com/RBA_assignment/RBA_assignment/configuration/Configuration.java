@@ -1,12 +1,136 @@
 package com.RBA_assignment.RBA_assignment.configuration;
 
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @org.springframework.context.annotation.Configuration
 public class Configuration {
+    private static final String CARD_SERVICE = "cardService";
+
+    // Keep-alive pool for the card service. Every wait is bounded: connecting, leasing a
+    // pooled connection and reading the response
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager cardServiceConnectionManager(
+            @Value("${card.request.client.max-connections}") int maxConnections,
+            @Value("${card.request.client.connect-timeout-ms}") long connectTimeoutMs,
+            @Value("${card.request.client.response-timeout-ms}") long responseTimeoutMs,
+            @Value("${card.request.client.keep-alive-ms}") long keepAliveMs) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMilliseconds(keepAliveMs))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient cardServiceHttpClient(
+            PoolingHttpClientConnectionManager cardServiceConnectionManager,
+            @Value("${card.request.client.connection-request-timeout-ms}") long connectionRequestTimeoutMs,
+            @Value("${card.request.client.response-timeout-ms}") long responseTimeoutMs,
+            @Value("${card.request.client.keep-alive-ms}") long keepAliveMs) {
+        return HttpClients.custom()
+                .setConnectionManager(cardServiceConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAliveMs))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMs))
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    // Only used for card service calls
+    @Bean
+    public RestTemplate cardServiceRestTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient cardServiceHttpClient) {
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(cardServiceHttpClient))
+                .build();
+    }
+
+    // Opens after too many failed or slow card service calls and fails fast until the service
+    // recovers. 4xx answers and a full bulkhead say nothing about its health, so they do not count
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(
+            @Value("${card.request.client.circuit-breaker.failure-rate-threshold}") float failureRateThreshold,
+            @Value("${card.request.client.circuit-breaker.sliding-window-size}") int slidingWindowSize,
+            @Value("${card.request.client.circuit-breaker.minimum-calls}") int minimumCalls,
+            @Value("${card.request.client.circuit-breaker.slow-call-ms}") long slowCallMs,
+            @Value("${card.request.client.circuit-breaker.open-ms}") long openMs) {
+        return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallMs))
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(Duration.ofMillis(openMs))
+                .ignoreExceptions(HttpClientErrorException.class, BulkheadFullException.class)
+                .build());
+    }
+
+    @Bean
+    public CircuitBreaker cardServiceCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry) {
+        return circuitBreakerRegistry.circuitBreaker(CARD_SERVICE);
+    }
+
+    // Caps concurrent card service calls so a slow card service cannot hold every worker
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(
+            @Value("${card.request.client.bulkhead.max-concurrent-calls}") int maxConcurrentCalls,
+            @Value("${card.request.client.bulkhead.max-wait-ms}") long maxWaitMs) {
+        return BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ofMillis(maxWaitMs))
+                .build());
+    }
+
+    @Bean
+    public Bulkhead cardServiceBulkhead(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.bulkhead(CARD_SERVICE);
+    }
+
+    @Bean
+    public MeterBinder cardServiceConnectionPoolMetrics(PoolingHttpClientConnectionManager cardServiceConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(cardServiceConnectionManager, CARD_SERVICE);
+    }
+
+    @Bean
+    public MeterBinder circuitBreakerMetrics(CircuitBreakerRegistry circuitBreakerRegistry) {
+        return TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry);
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public MeterBinder bulkheadMetrics(BulkheadRegistry bulkheadRegistry) {
+        return TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry);
     }
 }
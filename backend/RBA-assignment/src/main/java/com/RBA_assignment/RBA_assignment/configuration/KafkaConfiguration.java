@@ -0,0 +1,88 @@
+package com.RBA_assignment.RBA_assignment.configuration;
+
+import com.RBA_assignment.RBA_assignment.kafka.CardStatusWriteBehindBuffer;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+@Configuration
+public class KafkaConfiguration {
+    private static final String DEAD_LETTER_SUFFIX = "-dlt";
+
+    // Created on startup, or grown if it already exists with fewer partitions. The partition
+    // count caps how many listener threads across all instances can consume in parallel
+    @Bean
+    public NewTopic cardStatusTopic(
+            @Value("${card-status.topic.name}") String name,
+            @Value("${card-status.topic.partitions}") int partitions,
+            @Value("${card-status.topic.replicas}") short replicas) {
+        return TopicBuilder.name(name)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    // Receives card status records the batch listener gave up on, on the partition they came from
+    @Bean
+    public NewTopic cardStatusDeadLetterTopic(
+            @Value("${card-status.topic.name}") String name,
+            @Value("${card-status.topic.partitions}") int partitions,
+            @Value("${card-status.topic.replicas}") short replicas) {
+        return TopicBuilder.name(name + DEAD_LETTER_SUFFIX)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    // Batch container used when card-status.listener.mode=batch. The error handler retries the
+    // failed batch with backoff for up to card-status.batch.retry-max-elapsed-ms, then publishes
+    // its records to the dead letter topic and moves on, so one batch that keeps failing cannot
+    // stall its partitions; offsets never move past status changes that were neither written
+    // nor dead lettered
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            KafkaTemplate<?, ?> kafkaTemplate,
+            @Value("${card-status.batch.retry-max-elapsed-ms}") long retryMaxElapsedMs) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+        ExponentialBackOff backOff = new ExponentialBackOff(500L, 2.0);
+        backOff.setMaxInterval(30_000L);
+        backOff.setMaxElapsedTime(retryMaxElapsedMs);
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, e) -> new TopicPartition(record.topic() + DEAD_LETTER_SUFFIX, record.partition()));
+        factory.setCommonErrorHandler(new DefaultErrorHandler(recoverer, backOff));
+        return factory;
+    }
+
+    // Record container used when card-status.listener.mode=write-behind. Offsets are committed
+    // only when the write-behind buffer acknowledges them after its flush has committed, and the
+    // buffer hears of rebalances to drop what it holds for partitions this instance loses
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> manualAckKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            ObjectProvider<CardStatusWriteBehindBuffer> writeBehindBuffer) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        writeBehindBuffer.ifAvailable(factory.getContainerProperties()::setConsumerRebalanceListener);
+        return factory;
+    }
+}
@@ -0,0 +1,80 @@
+package com.RBA_assignment.RBA_assignment.configuration;
+
+import com.RBA_assignment.RBA_assignment.kafka.CardStatusWriteBehindBuffer;
+import com.RBA_assignment.RBA_assignment.monitoring.VirtualThreadPinningMonitor;
+import com.RBA_assignment.RBA_assignment.repository.OutboxEventRepository;
+import com.RBA_assignment.RBA_assignment.service.ChangeStream;
+import com.RBA_assignment.RBA_assignment.service.LookupIndex;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Instant;
+
+// Everything the framework does not measure on its own. HTTP server and client latency,
+// Hikari, Kafka client (including consumer lag), KafkaTemplate sends and the JVM come from
+// Spring Boot; all of it is scraped from /actuator/prometheus
+@Configuration
+public class MetricsConfiguration {
+
+    // Makes @Timed on the service classes record
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder lookupIndexMetrics(LookupIndex lookupIndex) {
+        return registry -> Gauge.builder("lookup.index.heap", lookupIndex, LookupIndex::heapBytes)
+                .description("Heap held by the OIB and card number index tables")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder changeStreamMetrics(ChangeStream changeStream) {
+        return registry -> {
+            Gauge.builder("change.stream.subscribers", changeStream, ChangeStream::getSubscribers)
+                    .description("Connected change stream subscribers")
+                    .register(registry);
+            FunctionCounter.builder("change.stream.evicted", changeStream, ChangeStream::getEvicted)
+                    .description("Change stream subscribers disconnected for falling behind")
+                    .register(registry);
+        };
+    }
+
+    // Read from the table on each scrape, so the backlog shows even while the relay is stuck
+    @Bean
+    public MeterBinder outboxMetrics(OutboxEventRepository outboxEventRepository) {
+        return registry -> {
+            Gauge.builder("outbox.events.pending", outboxEventRepository, OutboxEventRepository::count)
+                    .description("Outbox events not yet delivered")
+                    .register(registry);
+            Gauge.builder("outbox.events.due", outboxEventRepository, repository -> repository.countDue(Instant.now()))
+                    .description("Outbox events due for delivery, excluding those backing off after a failure")
+                    .register(registry);
+        };
+    }
+
+    // Optional components are only measured in the modes that create them
+    @Bean
+    public MeterBinder optionalComponentMetrics(
+            ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor,
+            ObjectProvider<CardStatusWriteBehindBuffer> writeBehindBuffer) {
+        return registry -> {
+            pinningMonitor.ifAvailable(monitor ->
+                    FunctionCounter.builder("jvm.threads.virtual.pinned", monitor, VirtualThreadPinningMonitor::getPinnedCount)
+                            .description("Virtual threads that pinned their carrier longer than the threshold")
+                            .register(registry));
+            writeBehindBuffer.ifAvailable(buffer ->
+                    Gauge.builder("card.status.buffered", buffer, CardStatusWriteBehindBuffer::getPending)
+                            .description("OIBs with a status change waiting for the next flush")
+                            .register(registry));
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.RBA_assignment.RBA_assignment.controller;
+
+import com.RBA_assignment.RBA_assignment.dto.StatusAggregatesDTO;
+import com.RBA_assignment.RBA_assignment.service.StatusAggregates;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/aggregates")
+public class AggregatesController {
+    private final StatusAggregates statusAggregates;
+
+    // Client and card counts per status from in-memory counters; no query runs per request
+    @GetMapping("/status")
+    public ResponseEntity<StatusAggregatesDTO> getStatusAggregates() {
+        return ResponseEntity.ok(statusAggregates.snapshot());
+    }
+}
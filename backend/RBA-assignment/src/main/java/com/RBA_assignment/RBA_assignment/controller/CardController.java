@@ -1,15 +1,23 @@
 package com.RBA_assignment.RBA_assignment.controller;
 
 import com.RBA_assignment.RBA_assignment.dto.CardDTO;
+import com.RBA_assignment.RBA_assignment.dto.CursorPage;
+import com.RBA_assignment.RBA_assignment.model.Status;
 import com.RBA_assignment.RBA_assignment.service.CardService;
+import com.RBA_assignment.RBA_assignment.service.ExportService;
+import com.RBA_assignment.RBA_assignment.service.TableVersions;
 import com.RBA_assignment.RBA_assignment.validator.ValidOIB;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 @Slf4j
@@ -19,6 +27,8 @@ import java.util.List;
 @RequestMapping("/api/v1/cards")
 public class CardController {
     private final CardService cardService;
+    private final ExportService exportService;
+    private final TableVersions tableVersions;
 
     @PostMapping
     public ResponseEntity<CardDTO> createCard(@RequestBody @Valid CardDTO cardDTO) {
@@ -40,20 +50,48 @@ public class CardController {
         return ResponseEntity.ok(card);
     }
 
+    // Conditional GETs are answered from the row version alone, as for clients
     @GetMapping("/client/{oib}")
-    public ResponseEntity<CardDTO> getCardByOib(@PathVariable @ValidOIB String oib) {
+    public ResponseEntity<CardDTO> getCardByOib(@PathVariable @ValidOIB String oib, WebRequest request) {
+        String version = cardService.getCardVersionTag(oib);
+        if (version != null && request.checkNotModified("card-" + version)) {
+            return null;
+        }
         log.info("Fetching cards by card number: {}", oib);
         CardDTO card = cardService.getCardByOib(oib);
         return ResponseEntity.ok(card);
     }
 
+    // The list's ETag is the card table's change counter, as for the client list
     @GetMapping
-    public ResponseEntity<List<CardDTO>> getAllCards() {
+    public ResponseEntity<List<CardDTO>> getAllCards(WebRequest request) {
+        if (request.checkNotModified("cards-" + tableVersions.cards())) {
+            return null;
+        }
         log.info("Fetching all cards");
         List<CardDTO> cards = cardService.getAllCards();
         return ResponseEntity.ok(cards);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<CardDTO>> getCardsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String status
+    ) {
+        log.info("Fetching cards page after cursor: {}", cursor);
+        return ResponseEntity.ok(cardService.getCardsPage(cursor, size, Status.fromParameter(status)));
+    }
+
+    // Streams rows straight to the response so memory stays flat regardless of table size
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportCards(HttpServletResponse response) throws IOException {
+        log.info("Exporting all cards");
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        exportService.exportCards(response.getOutputStream());
+    }
+
     @PutMapping
     public ResponseEntity<CardDTO> updateCard(@RequestBody @Valid CardDTO cardUpdateRequest) {
         log.info("Updating card: {}", cardUpdateRequest);
@@ -0,0 +1,31 @@
+package com.RBA_assignment.RBA_assignment.controller;
+
+import com.RBA_assignment.RBA_assignment.dto.CardIssuanceJobDTO;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.service.CardIssuanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@CrossOrigin
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/cards/issuance")
+public class CardIssuanceController {
+    private final CardIssuanceService cardIssuanceService;
+
+    // Starts issuing cards to every client in the given status that has none; progress via GET
+    @PostMapping
+    public ResponseEntity<CardIssuanceJobDTO> startIssuance(@RequestParam String status) {
+        log.info("Starting card issuance for {} clients", status);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(cardIssuanceService.start(Status.fromParameter(status)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CardIssuanceJobDTO> getIssuance(@PathVariable Long id) {
+        return ResponseEntity.ok(cardIssuanceService.getJob(id));
+    }
+}
@@ -1,7 +1,7 @@
 package com.RBA_assignment.RBA_assignment.controller;
 
 import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
-import com.RBA_assignment.RBA_assignment.kafka.CardStatusProducer;
+import com.RBA_assignment.RBA_assignment.service.OutboxService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,12 +14,13 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/api/v1/card-status")
 public class ChangeStatusEventController {
-    private final CardStatusProducer cardStatusProducer;
+    private final OutboxService outboxService;
 
     @PostMapping
     public ResponseEntity<?> changeStatusRequest(@RequestBody @Valid CardStatusMessage newCardStatusRequest) {
         log.info("Received new card status request: {}", newCardStatusRequest);
-        cardStatusProducer.sendCardStatus(newCardStatusRequest);
+        // Stored locally and published to Kafka by the outbox relay
+        outboxService.enqueueCardStatus(newCardStatusRequest);
         return ResponseEntity.status(201).build();
     }
 }
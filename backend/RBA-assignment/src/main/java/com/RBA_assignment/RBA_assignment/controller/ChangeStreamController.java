@@ -0,0 +1,32 @@
+package com.RBA_assignment.RBA_assignment.controller;
+
+import com.RBA_assignment.RBA_assignment.service.ChangeStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Slf4j
+@CrossOrigin
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/events")
+public class ChangeStreamController {
+    private final ChangeStream changeStream;
+
+    // Client, card and status changes as they commit: one JSON delta per message, or an array of
+    // them for changes written together
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe() {
+        SseEmitter emitter = changeStream.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        log.info("Change stream subscriber connected");
+        return ResponseEntity.ok(emitter);
+    }
+}
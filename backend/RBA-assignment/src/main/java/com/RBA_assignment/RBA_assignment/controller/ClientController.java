@@ -1,14 +1,26 @@
 package com.RBA_assignment.RBA_assignment.controller;
 
 import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.dto.ClientImportReport;
+import com.RBA_assignment.RBA_assignment.dto.ClientWithCardDTO;
+import com.RBA_assignment.RBA_assignment.dto.CursorPage;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.service.ClientImportService;
 import com.RBA_assignment.RBA_assignment.service.ClientService;
+import com.RBA_assignment.RBA_assignment.service.ExportService;
+import com.RBA_assignment.RBA_assignment.service.TableVersions;
 import com.RBA_assignment.RBA_assignment.validator.ValidOIB;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 @Slf4j
@@ -18,6 +30,9 @@ import java.util.List;
 @RequestMapping("/api/v1/clients")
 public class ClientController {
     private final ClientService clientService;
+    private final ExportService exportService;
+    private final ClientImportService clientImportService;
+    private final TableVersions tableVersions;
 
     @PostMapping
     public ResponseEntity<ClientDTO> createClient(@RequestBody @Valid ClientDTO clientDTO) {
@@ -25,18 +40,81 @@ public class ClientController {
         return ResponseEntity.ok(clientService.createClient(clientDTO));
     }
 
+    // Accepts a JSON array or NDJSON; rows are committed in chunks while the body is still being read
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ClientImportReport> importClients(HttpServletRequest request) throws IOException {
+        log.info("Importing clients in bulk");
+        return ResponseEntity.ok(clientImportService.importClients(request.getInputStream()));
+    }
+
+    // Conditional GETs are answered from the row version alone; a 304 loads and serializes nothing
     @GetMapping("/{oib}")
-    public ResponseEntity<ClientDTO> getClientByOib(@PathVariable @ValidOIB String oib) {
+    public ResponseEntity<ClientDTO> getClientByOib(@PathVariable @ValidOIB String oib, WebRequest request) {
+        String version = clientService.getClientVersionTag(oib);
+        if (version != null && request.checkNotModified("client-" + version)) {
+            return null;
+        }
         log.info("Fetching client by OIB: {}", oib);
         return ResponseEntity.ok(clientService.getClientByOib(oib));
     }
 
     @GetMapping
-    public ResponseEntity<List<ClientDTO>> getAllClients() {
+    public ResponseEntity<List<ClientDTO>> getAllClients(WebRequest request) {
+        if (request.checkNotModified("clients-" + tableVersions.clients())) {
+            return null;
+        }
         log.info("Fetching all clients");
         return ResponseEntity.ok(clientService.getAllClients());
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<ClientDTO>> getClientsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String lastNamePrefix
+    ) {
+        log.info("Fetching clients page after cursor: {}", cursor);
+        return ResponseEntity.ok(clientService.getClientsPage(cursor, size, Status.fromParameter(status), lastNamePrefix));
+    }
+
+    // Prefix search over first and last names, in alphabetical order of the matching name
+    @GetMapping("/search")
+    public ResponseEntity<List<ClientDTO>> searchClients(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit
+    ) {
+        log.info("Searching clients by name prefix: {}", q);
+        return ResponseEntity.ok(clientService.searchClients(q, limit));
+    }
+
+    // Client and card from one query, without the card request a plain client lookup queues
+    @GetMapping("/{oib}/with-card")
+    public ResponseEntity<ClientWithCardDTO> getClientWithCard(@PathVariable @ValidOIB String oib) {
+        log.info("Fetching client with card by OIB: {}", oib);
+        return ResponseEntity.ok(clientService.getClientWithCard(oib));
+    }
+
+    @GetMapping("/with-card/page")
+    public ResponseEntity<CursorPage<ClientWithCardDTO>> getClientsWithCardPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String lastNamePrefix
+    ) {
+        log.info("Fetching clients with cards page after cursor: {}", cursor);
+        return ResponseEntity.ok(clientService.getClientsWithCardPage(cursor, size, Status.fromParameter(status), lastNamePrefix));
+    }
+
+    // Streams rows straight to the response so memory stays flat regardless of table size
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportClients(HttpServletResponse response) throws IOException {
+        log.info("Exporting all clients");
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        exportService.exportClients(response.getOutputStream());
+    }
+
     @PutMapping
     public ResponseEntity<ClientDTO> updateClient(@RequestBody @Valid ClientDTO clientUpdateRequest) {
         log.info("Updating client: {}", clientUpdateRequest);
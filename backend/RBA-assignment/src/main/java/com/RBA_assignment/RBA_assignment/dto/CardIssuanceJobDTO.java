@@ -0,0 +1,27 @@
+package com.RBA_assignment.RBA_assignment.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CardIssuanceJobDTO {
+    private Long id;
+    private String clientStatus;
+    private String state;
+    private long lastClientId;
+    private long issued;
+    private long skipped;
+
+    // Average since the job (or its latest resume) started
+    private double cardsPerSecond;
+
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+    private String error;
+}
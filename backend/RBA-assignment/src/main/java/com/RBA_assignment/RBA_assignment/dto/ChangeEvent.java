@@ -0,0 +1,54 @@
+package com.RBA_assignment.RBA_assignment.dto;
+
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+// Delta pushed to change stream subscribers: just enough for a client to patch the row it holds
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeEvent {
+    Type type;
+
+    String oib;
+
+    String cardNumber;
+
+    String firstName;
+
+    String lastName;
+
+    Status status;
+
+    public enum Type {
+        CLIENT_SAVED,
+        CLIENT_DELETED,
+        CARD_SAVED,
+        CARD_DELETED,
+        // Card and client of the OIB moved to the status, as applied from the card status topic
+        STATUS_CHANGED
+    }
+
+    public static ChangeEvent clientSaved(String oib, String firstName, String lastName, Status status) {
+        return new ChangeEvent(Type.CLIENT_SAVED, oib, null, firstName, lastName, status);
+    }
+
+    public static ChangeEvent clientDeleted(String oib) {
+        return new ChangeEvent(Type.CLIENT_DELETED, oib, null, null, null, null);
+    }
+
+    public static ChangeEvent cardSaved(String oib, String cardNumber, Status status) {
+        return new ChangeEvent(Type.CARD_SAVED, oib, cardNumber, null, null, status);
+    }
+
+    public static ChangeEvent cardDeleted(String oib, String cardNumber) {
+        return new ChangeEvent(Type.CARD_DELETED, oib, cardNumber, null, null, null);
+    }
+
+    public static ChangeEvent statusChanged(String oib, Status status) {
+        return new ChangeEvent(Type.STATUS_CHANGED, oib, null, null, null, status);
+    }
+}
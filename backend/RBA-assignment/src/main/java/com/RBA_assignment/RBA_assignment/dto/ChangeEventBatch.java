@@ -0,0 +1,12 @@
+package com.RBA_assignment.RBA_assignment.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+// Changes written together, such as one chunk of a bulk job. Subscribers get them as one message
+// holding a JSON array, so a bulk job takes one slot per chunk in their buffers, not one per row
+@Value
+public class ChangeEventBatch {
+    List<ChangeEvent> events;
+}
@@ -0,0 +1,22 @@
+package com.RBA_assignment.RBA_assignment.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClientImportReport {
+    private int total;
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private int failed;
+
+    // Set when the input could not be read to the end; rows after that point were not imported
+    private String error;
+
+    private List<ClientImportResult> rows = new ArrayList<>();
+}
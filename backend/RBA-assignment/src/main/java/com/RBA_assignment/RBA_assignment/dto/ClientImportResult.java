@@ -0,0 +1,26 @@
+package com.RBA_assignment.RBA_assignment.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClientImportResult {
+    // Position of the row in the input, starting at 1
+    private int row;
+
+    private String oib;
+
+    private Outcome result;
+
+    private String message;
+
+    public enum Outcome {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+}
@@ -0,0 +1,35 @@
+package com.RBA_assignment.RBA_assignment.dto;
+
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+// Read model of a client together with their card, filled straight from one JOIN
+@Data
+public class ClientWithCardDTO {
+    // Keyset position for pages, not part of the response
+    @JsonIgnore
+    private Long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String oib;
+
+    private Status status;
+
+    // Null for a client without a card
+    private CardDTO card;
+
+    // JPQL constructor projection; the card columns are null when the outer join found no card
+    public ClientWithCardDTO(Long id, String firstName, String lastName, String oib, Status status,
+                             String cardNumber, Status cardStatus) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.oib = oib;
+        this.status = status;
+        this.card = cardNumber == null ? null : new CardDTO(cardNumber, oib, cardStatus == null ? null : cardStatus.toString());
+    }
+}
@@ -0,0 +1,15 @@
+package com.RBA_assignment.RBA_assignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+
+    // Opaque token for the next page, null when there are no more rows
+    private String nextCursor;
+}
@@ -0,0 +1,26 @@
+package com.RBA_assignment.RBA_assignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class StatusAggregatesDTO {
+    private StatusCounts clients;
+    private StatusCounts cards;
+
+    // Last time the counters were checked against the database; null before the first check
+    private Instant reconciledAt;
+
+    @Data
+    @AllArgsConstructor
+    public static class StatusCounts {
+        private long total;
+
+        // Every status, plus "none" for rows without one when there are any
+        private Map<String, Long> byStatus;
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.EntityExistsException;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.FetchNotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -67,6 +68,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
 
+    // A concurrent write bumped the row's version between this request's read and its update
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponseMsg> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        log.warn("Concurrent update: {}", ex.getMessage());
+        ApiResponseMsg error = new ApiResponseMsg(
+                HttpStatus.CONFLICT.value(),
+                "Conflict - " + "The entity was changed by another request. Reload it and try again."
+        );
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    // Malformed cursors, unknown status filters and similar bad input
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    public ResponseEntity<ApiResponseMsg> handleInvalidRequestParameter(InvalidRequestParameterException ex) {
+        log.warn("Bad request: {}", ex.getMessage());
+        ApiResponseMsg error = new ApiResponseMsg(
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request - " + ex.getMessage()
+        );
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
     // Catch-all fallback
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponseMsg> handleGeneralError(Exception ex) {
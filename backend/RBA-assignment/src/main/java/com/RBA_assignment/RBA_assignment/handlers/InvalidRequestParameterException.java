@@ -0,0 +1,10 @@
+package com.RBA_assignment.RBA_assignment.handlers;
+
+// A query parameter the caller got wrong, such as a malformed cursor or an unknown status filter;
+// answered with 400 and this message, unlike IllegalArgumentExceptions from inside the app
+public class InvalidRequestParameterException extends RuntimeException {
+
+    public InvalidRequestParameterException(String message) {
+        super(message);
+    }
+}
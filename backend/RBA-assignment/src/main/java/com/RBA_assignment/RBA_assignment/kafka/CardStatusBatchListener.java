@@ -0,0 +1,53 @@
+package com.RBA_assignment.RBA_assignment.kafka;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.service.StatusChangeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "card-status.listener.mode", havingValue = "batch")
+public class CardStatusBatchListener {
+
+    private final StatusChangeService statusChangeService;
+    private final MeterRegistry meterRegistry;
+
+    // Offsets of the whole poll are committed by the container only after this returns,
+    // i.e. after the status transaction has committed; a failure re-delivers the batch
+    @KafkaListener(topics = "${card-status.topic.name}", groupId = "card-status-group", concurrency = "${card-status.listener.concurrency}", containerFactory = "batchKafkaListenerContainerFactory")
+    public void listenCardStatusBatch(List<ConsumerRecord<String, CardStatusMessage>> records) {
+        log.info("Received batch of {} card status updates", records.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<String, Status> latestByOib = new HashMap<>();
+        for (ConsumerRecord<String, CardStatusMessage> record : records) {
+            CardStatusMessage statusMessage = record.value();
+            if (statusMessage == null) {
+                // Already logged by CardStatusDeserializer
+                meterRegistry.counter("card.status.unreadable", "mode", "batch").increment();
+                continue;
+            }
+            // Records arrive in partition order, so a later put wins
+            latestByOib.put(statusMessage.getOib(), statusMessage.getStatus());
+        }
+        try {
+            statusChangeService.applyLatest(latestByOib);
+            sample.stop(meterRegistry.timer("card.status.listener", "mode", "batch", "result", "applied"));
+        } catch (RuntimeException e) {
+            sample.stop(meterRegistry.timer("card.status.listener", "mode", "batch", "result", "failed"));
+            throw e;
+        }
+    }
+}
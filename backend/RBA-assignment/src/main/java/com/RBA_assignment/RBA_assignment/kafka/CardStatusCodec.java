@@ -0,0 +1,60 @@
+package com.RBA_assignment.RBA_assignment.kafka;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.RBA_assignment.RBA_assignment.model.Status;
+
+// Binary wire format for card status events, 10 bytes against about 40 of JSON plus the type
+// header JsonSerializer adds:
+//   byte 0     schema version (1); JSON always starts with '{' or whitespace, so the two never clash
+//   bytes 1-8  OIB as a big-endian long; the 11 digits are restored with leading zeros
+//   byte 9     Status ordinal, so statuses may only ever be appended to the enum
+public final class CardStatusCodec {
+    public static final byte VERSION = 1;
+    public static final int LENGTH = 10;
+
+    private static final Status[] STATUSES = Status.values();
+    private static final int OIB_DIGITS = 11;
+
+    private CardStatusCodec() {
+    }
+
+    public static byte[] encode(CardStatusMessage message) {
+        long oib = Long.parseLong(message.getOib());
+        byte[] bytes = new byte[LENGTH];
+        bytes[0] = VERSION;
+        for (int i = 8; i >= 1; i--) {
+            bytes[i] = (byte) oib;
+            oib >>>= 8;
+        }
+        bytes[9] = (byte) message.getStatus().ordinal();
+        return bytes;
+    }
+
+    public static boolean isBinary(byte[] bytes) {
+        return bytes.length > 0 && bytes[0] == VERSION;
+    }
+
+    public static CardStatusMessage decode(byte[] bytes) {
+        if (bytes.length != LENGTH || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Not a version " + VERSION + " card status record: " + bytes.length + " bytes");
+        }
+        long oib = 0;
+        for (int i = 1; i <= 8; i++) {
+            oib = oib << 8 | (bytes[i] & 0xFF);
+        }
+        int ordinal = bytes[9] & 0xFF;
+        if (oib < 0 || oib > 99_999_999_999L || ordinal >= STATUSES.length) {
+            throw new IllegalArgumentException("Card status record out of range: OIB " + oib + ", status " + ordinal);
+        }
+        return new CardStatusMessage(oibToString(oib), STATUSES[ordinal].name());
+    }
+
+    private static String oibToString(long oib) {
+        char[] digits = new char[OIB_DIGITS];
+        for (int i = OIB_DIGITS - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + oib % 10);
+            oib /= 10;
+        }
+        return new String(digits);
+    }
+}
@@ -0,0 +1,47 @@
+package com.RBA_assignment.RBA_assignment.kafka;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+// Reads card status events in either wire format, told apart by the first byte, so records
+// written as JSON before the switch to binary are still consumed. Unreadable records come
+// through as null rather than failing the poll: each listener mode counts and skips them itself,
+// and the write-behind mode must not have the container commit past records it has not flushed
+@Slf4j
+public class CardStatusDeserializer implements Deserializer<CardStatusMessage> {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Override
+    public CardStatusMessage deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return CardStatusCodec.isBinary(data) ? CardStatusCodec.decode(data) : readJson(data);
+        } catch (Exception e) {
+            String printable = CardStatusCodec.isBinary(data)
+                    ? HexFormat.of().formatHex(data)
+                    : new String(data, StandardCharsets.UTF_8);
+            log.error("Unreadable card status record on {}: {}", topic, printable, e);
+            return null;
+        }
+    }
+
+    // Checked here as the binary decoder checks its fields: a missing or unknown status would
+    // otherwise only throw from getStatus() inside a listener, outside its per-record handling
+    private CardStatusMessage readJson(byte[] data) throws IOException {
+        CardStatusMessage message = objectMapper.readValue(data, CardStatusMessage.class);
+        if (message.getOib() == null) {
+            throw new IllegalArgumentException("Card status record without OIB");
+        }
+        // getStatus() throws for a missing or unknown status; the name comes back canonical
+        return new CardStatusMessage(message.getOib(), message.getStatus().name());
+    }
+}
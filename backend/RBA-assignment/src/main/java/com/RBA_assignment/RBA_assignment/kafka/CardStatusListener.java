@@ -1,34 +1,45 @@
 package com.RBA_assignment.RBA_assignment.kafka;
 
 import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
-import com.RBA_assignment.RBA_assignment.service.CardService;
-import com.RBA_assignment.RBA_assignment.service.ClientService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.RBA_assignment.RBA_assignment.service.StatusChangeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "card-status.listener.mode", havingValue = "record", matchIfMissing = true)
 public class CardStatusListener {
 
-    private final CardService cardService;
-    private final ClientService clientService;
-    private final ObjectMapper objectMapper;
+    private final StatusChangeService statusChangeService;
+    private final MeterRegistry meterRegistry;
 
-    @KafkaListener(topics = "card-status", groupId = "card-status-group")
-    public void listenCardStatus(String message) {
-        log.info("Received card status update: {}", message);
+    @KafkaListener(topics = "${card-status.topic.name}", groupId = "card-status-group", concurrency = "${card-status.listener.concurrency}")
+    public void listenCardStatus(ConsumerRecord<String, CardStatusMessage> record) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "failed";
+        CardStatusMessage statusMessage = record.value();
         try {
-            CardStatusMessage statusMessage = objectMapper.readValue(message, CardStatusMessage.class);
+            if (statusMessage == null) {
+                // Already logged by CardStatusDeserializer
+                result = "unreadable";
+                meterRegistry.counter("card.status.unreadable", "mode", "record").increment();
+                return;
+            }
             log.info("Received status update: {}", statusMessage);
-            // Add the trigger for message processing maybe api endpoint that will send the msg here like change of card status!
-            cardService.eventChangeCardStatus(statusMessage.getOib(), statusMessage.getStatus().toString());
-            clientService.eventChangeClientStatus(statusMessage.getOib(), statusMessage.getStatus().toString());
+            // Card and client change together or not at all
+            result = statusChangeService.apply(statusMessage.getOib(), statusMessage.getStatus()) ? "applied" : "unchanged";
         } catch (Exception e) {
-            log.error("Failed to process card status message: {}", message, e);
+            log.error("Failed to process card status message: {}", statusMessage, e);
+        } finally {
+            // Failures are swallowed here, so the container's own listener timer counts them as successes
+            sample.stop(meterRegistry.timer("card.status.listener", "mode", "record", "result", result));
         }
     }
 }
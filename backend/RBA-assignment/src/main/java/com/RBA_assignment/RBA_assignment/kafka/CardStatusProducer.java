@@ -2,15 +2,23 @@ package com.RBA_assignment.RBA_assignment.kafka;
 
 import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 public class CardStatusProducer {
     private final KafkaTemplate<String, CardStatusMessage> kafkaTemplate;
 
-    public void sendCardStatus(CardStatusMessage message) {
-        kafkaTemplate.send("card-status", message);
+    @Value("${card-status.topic.name}")
+    private String topic;
+
+    // Keyed by OIB so every event for a client lands on the same partition and is consumed in order
+    public CompletableFuture<SendResult<String, CardStatusMessage>> sendCardStatus(CardStatusMessage message) {
+        return kafkaTemplate.send(topic, message.getOib(), message);
     }
-}
\ No newline at end of file
+}
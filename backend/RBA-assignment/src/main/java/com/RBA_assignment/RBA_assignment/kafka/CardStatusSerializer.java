@@ -0,0 +1,46 @@
+package com.RBA_assignment.RBA_assignment.kafka;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Map;
+
+// Writes card status events in the format named by the card-status.wire-format producer property:
+// json, the default every consumer reads, or binary (CardStatusCodec) once all consumers read it
+public class CardStatusSerializer implements Serializer<CardStatusMessage> {
+    public static final String WIRE_FORMAT_CONFIG = "card-status.wire-format";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private boolean binary;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(WIRE_FORMAT_CONFIG);
+        if (format != null) {
+            binary = switch (format.toString().trim().toLowerCase()) {
+                case "binary" -> true;
+                case "json" -> false;
+                default -> throw new IllegalArgumentException("Unknown " + WIRE_FORMAT_CONFIG + ": " + format);
+            };
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, CardStatusMessage message) {
+        if (message == null) {
+            return null;
+        }
+        if (binary) {
+            return CardStatusCodec.encode(message);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Could not write card status message for OIB " + message.getOib(), e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.RBA_assignment.RBA_assignment.kafka;
+
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.service.StatusChangeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Write-behind stage for card status events. Listener threads only record the latest status per
+// OIB; one flusher thread writes what has collected in a single transaction on an interval, or
+// early once enough OIBs are waiting, so a burst of flips for an OIB costs one row update.
+// Offsets are acknowledged only after the transaction that covers them commits, so a crash
+// re-delivers everything not yet written and nothing is lost. For the same reason a partition
+// taken away by a rebalance has its buffered statuses dropped: its new owner re-reads them from
+// the last committed offset, and a late flush here could overwrite what that owner wrote since
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "card-status.listener.mode", havingValue = "write-behind")
+public class CardStatusWriteBehindBuffer implements ConsumerAwareRebalanceListener {
+    private final StatusChangeService statusChangeService;
+    private final MeterRegistry meterRegistry;
+    private final int maxPending;
+    private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+    // Latest record per partition; acknowledging it commits every earlier offset of the partition
+    private final ConcurrentMap<TopicPartition, Acknowledgment> unacknowledged = new ConcurrentHashMap<>();
+    private final AtomicBoolean earlyFlushRequested = new AtomicBoolean();
+    // Held for a whole flush, so a revocation waits for a flush in progress to finish
+    private final Lock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("card-status-flush-"));
+
+    public CardStatusWriteBehindBuffer(
+            StatusChangeService statusChangeService,
+            MeterRegistry meterRegistry,
+            @Value("${card-status.write-behind.flush-interval-ms}") long flushIntervalMs,
+            @Value("${card-status.write-behind.max-pending}") int maxPending) {
+        this.statusChangeService = statusChangeService;
+        this.meterRegistry = meterRegistry;
+        this.maxPending = maxPending;
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // status is null for a record that carried nothing to write; it still has to be acknowledged
+    public void add(String oib, Status status, TopicPartition partition, Acknowledgment acknowledgment) {
+        // The status goes in before its acknowledgment, so a flush that picks up the
+        // acknowledgment always finds the status (or a later one) as well
+        if (status != null) {
+            pending.put(oib, new Pending(status, partition));
+        }
+        unacknowledged.put(partition, acknowledgment);
+        if (pending.size() >= maxPending && earlyFlushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    void flush() {
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushPending() {
+        Map<TopicPartition, Acknowledgment> acknowledgments = new HashMap<>();
+        unacknowledged.forEach((partition, acknowledgment) -> {
+            if (unacknowledged.remove(partition, acknowledgment)) {
+                acknowledgments.put(partition, acknowledgment);
+            }
+        });
+        Map<String, Pending> taken = new HashMap<>();
+        pending.forEach((oib, entry) -> {
+            // A status replaced meanwhile stays behind for the next flush
+            if (pending.remove(oib, entry)) {
+                taken.put(oib, entry);
+            }
+        });
+        Map<String, Status> latest = new HashMap<>();
+        taken.forEach((oib, entry) -> latest.put(oib, entry.status()));
+        if (latest.isEmpty() && acknowledgments.isEmpty()) {
+            earlyFlushRequested.set(false);
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            statusChangeService.applyLatest(latest);
+            sample.stop(meterRegistry.timer("card.status.flush", "result", "success"));
+        } catch (RuntimeException e) {
+            sample.stop(meterRegistry.timer("card.status.flush", "result", "failure"));
+            log.error("Write-behind flush of {} status changes failed, retrying on the next flush", latest.size(), e);
+            taken.forEach(pending::putIfAbsent);
+            acknowledgments.forEach(unacknowledged::putIfAbsent);
+            // No early flushes until a scheduled one gets through, so a failing database is
+            // retried on the interval rather than on every incoming record
+            return;
+        }
+        earlyFlushRequested.set(false);
+        acknowledgments.values().forEach(Acknowledgment::acknowledge);
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    // Runs on the consumer thread before the container commits, and the rebalance waits for it,
+    // so nothing of these partitions is written once they can be assigned elsewhere
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        drop(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        drop(partitions);
+    }
+
+    private void drop(Collection<TopicPartition> partitions) {
+        flushLock.lock();
+        try {
+            partitions.forEach(unacknowledged::remove);
+            int before = pending.size();
+            pending.values().removeIf(entry -> partitions.contains(entry.partition()));
+            log.info("Dropped {} buffered status changes of revoked partitions {}", before - pending.size(), partitions);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Writes what is left; offsets acknowledged now may no longer be committed, in which case
+    // the records are re-delivered and applied again, which is harmless for a latest-value write
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        if (flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+            flush();
+        }
+    }
+
+    private record Pending(Status status, TopicPartition partition) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.RBA_assignment.RBA_assignment.kafka;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "card-status.listener.mode", havingValue = "write-behind")
+public class CardStatusWriteBehindListener {
+
+    private final CardStatusWriteBehindBuffer buffer;
+    private final MeterRegistry meterRegistry;
+
+    // Manual acks: the offset is committed by the buffer once the status is in the database
+    @KafkaListener(topics = "${card-status.topic.name}", groupId = "card-status-group", concurrency = "${card-status.listener.concurrency}", containerFactory = "manualAckKafkaListenerContainerFactory")
+    public void listenCardStatus(ConsumerRecord<String, CardStatusMessage> record, Acknowledgment acknowledgment) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        CardStatusMessage statusMessage = record.value();
+        if (statusMessage == null) {
+            // Already logged by CardStatusDeserializer; acknowledged along with the next flush
+            meterRegistry.counter("card.status.unreadable", "mode", "write-behind").increment();
+            buffer.add(null, null, partition, acknowledgment);
+            return;
+        }
+        buffer.add(statusMessage.getOib(), statusMessage.getStatus(), partition, acknowledgment);
+    }
+}
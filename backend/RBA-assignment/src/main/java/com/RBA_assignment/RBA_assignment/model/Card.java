@@ -4,7 +4,12 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,11 +17,13 @@ import lombok.NoArgsConstructor;
 @Data
 @Builder
 public class Card {
+    // Pooled sequence ids like Client, so bulk issuance can batch its inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_seq")
+    @SequenceGenerator(name = "card_seq", sequenceName = "card_seq", allocationSize = 50)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @Column(unique = true, nullable = false, length = 16)
     private String cardNumber;
 
     @Enumerated(EnumType.STRING)
@@ -24,4 +31,18 @@ public class Card {
 
     @Column(unique = true, nullable = false, length = 11)
     private String oib;
+
+    // Joins go through this id rather than the OIB. Empty for a card requested before its client
+    // existed, until the client is created, and for one whose client was deleted
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "client_id")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Client client;
+
+    // Same as Client.version
+    @Version
+    @ColumnDefault("0")
+    private long version;
 }
@@ -0,0 +1,48 @@
+package com.RBA_assignment.RBA_assignment.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Data
+@Builder
+public class CardIssuanceJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Clients in this status without a card get one
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status clientStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CardIssuanceJobState state;
+
+    // Checkpoint: every client up to this id has been handled, a resumed job continues after it
+    private long lastClientId;
+
+    private long issued;
+
+    // Clients that got a card elsewhere while the job was running
+    private long skipped;
+
+    @Column(nullable = false)
+    private Instant startedAt;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    private Instant finishedAt;
+
+    @Column(length = 500)
+    private String error;
+}
@@ -0,0 +1,7 @@
+package com.RBA_assignment.RBA_assignment.model;
+
+public enum CardIssuanceJobState {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,8 +13,11 @@ import lombok.NoArgsConstructor;
 @Data
 @Builder
 public class Client {
+    // Sequence ids are handed out in blocks, so Hibernate can batch inserts; the V1 migration
+    // moved the sequence ahead of ids from the IDENTITY era
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_seq")
+    @SequenceGenerator(name = "client_seq", sequenceName = "client_seq", allocationSize = 50)
     private Long id;
 
     private String firstName;
@@ -25,4 +29,10 @@ public class Client {
 
     @Enumerated(EnumType.STRING)
     private Status status;
+
+    // Bumped on every write, including the bulk status updates; feeds the resource ETag. The
+    // default fills the column for rows that existed before it
+    @Version
+    @ColumnDefault("0")
+    private long version;
 }
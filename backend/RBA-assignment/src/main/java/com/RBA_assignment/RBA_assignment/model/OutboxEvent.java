@@ -0,0 +1,42 @@
+package com.RBA_assignment.RBA_assignment.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Data
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxEventType type;
+
+    // Events for the same OIB are delivered in id order
+    @Column(nullable = false, length = 11)
+    private String oib;
+
+    @Column(nullable = false, length = 2000)
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+}
@@ -0,0 +1,6 @@
+package com.RBA_assignment.RBA_assignment.model;
+
+public enum OutboxEventType {
+    CARD_REQUEST,
+    CARD_STATUS
+}
@@ -1,5 +1,6 @@
 package com.RBA_assignment.RBA_assignment.model;
 
+import com.RBA_assignment.RBA_assignment.handlers.InvalidRequestParameterException;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 import lombok.Getter;
@@ -27,6 +28,15 @@ public enum Status {
         return Status.valueOf(value.trim().toUpperCase());
     }
 
+    // For status query parameters, where an unknown value is the caller's mistake
+    public static Status fromParameter(String value) {
+        try {
+            return fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestParameterException("Unknown status: " + value);
+        }
+    }
+
     @JsonValue
     public String toJson() {
         return name().toLowerCase();
@@ -0,0 +1,13 @@
+package com.RBA_assignment.RBA_assignment.repository;
+
+import com.RBA_assignment.RBA_assignment.model.CardIssuanceJob;
+import com.RBA_assignment.RBA_assignment.model.CardIssuanceJobState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CardIssuanceJobRepository extends JpaRepository<CardIssuanceJob, Long> {
+    List<CardIssuanceJob> findByStateOrderById(CardIssuanceJobState state);
+}
@@ -1,13 +1,88 @@
 package com.RBA_assignment.RBA_assignment.repository;
 
 import com.RBA_assignment.RBA_assignment.model.Card;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CardRepository extends JpaRepository<Card, Long> {
     Optional<Card> findByCardNumber(String cardNumber);
     Optional<Card> findByOib(String oib);
+    boolean existsByOib(String oib);
+
+    @Query("""
+            select c from Card c
+            where c.id > :afterId
+              and (:status is null or c.status = :status)
+            order by c.id
+            """)
+    List<Card> findPageAfter(long afterId, Status status, Limit limit);
+
+    // Must be consumed inside a transaction and closed; rows are fetched lazily in fetch-size chunks
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Card c order by c.id")
+    Stream<Card> streamAll();
+
+    // Only the columns the lookup index keeps, so the scan loads no entities
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c.oib as oib, c.cardNumber as cardNumber, c.status as status from Card c")
+    Stream<IndexRow> streamIndexRows();
+
+    // ETag source, as for clients
+    @Query("select concat(c.id, '-', c.version) from Card c where c.oib = :oib")
+    Optional<String> findVersionTagByOib(String oib);
+
+    // Attaches cards that were requested before their client existed to the client now holding
+    // their OIB; version is left alone as the card's representation does not change
+    @Modifying
+    @Query("update Card k set k.client = (select c from Client c where c.oib = k.oib) where k.client is null and k.oib in :oibs")
+    int linkToClients(Collection<String> oibs);
+
+    // Single-row status change that skips the write when the status is already current. H2's OLD
+    // TABLE over the update returns the changed row as it was, so the status it replaced comes
+    // back from the same statement; empty when nothing changed
+    @Query(nativeQuery = true, value = """
+            select oib as oib, status as status from old table (
+                update card set status = :status, version = version + 1
+                where oib = :oib and (status is null or status <> :status))
+            """)
+    List<StatusChange> updateStatus(String oib, String status);
+
+    // Set-based status change; rows already in the target status are left alone. Returns each
+    // changed row with the status it had before, so callers act only on the OIBs that moved
+    @Query(nativeQuery = true, value = """
+            select oib as oib, status as status from old table (
+                update card set status = :status, version = version + 1
+                where oib in :oibs and (status is null or status <> :status))
+            """)
+    List<StatusChange> updateStatusForOibs(String status, Collection<String> oibs);
+
+    @Query("select c.status as status, count(c) as total from Card c group by c.status")
+    List<StatusCount> countByStatus();
+
+    interface IndexRow {
+        String getOib();
+
+        String getCardNumber();
+
+        Status getStatus();
+    }
 }
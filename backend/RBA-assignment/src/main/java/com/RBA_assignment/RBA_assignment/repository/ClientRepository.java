@@ -1,12 +1,146 @@
 package com.RBA_assignment.RBA_assignment.repository;
 
+import com.RBA_assignment.RBA_assignment.dto.ClientWithCardDTO;
 import com.RBA_assignment.RBA_assignment.model.Client;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
     Optional<Client> findByOib(String oib);
+
+    @Query("select c.id from Client c where c.oib = :oib")
+    Optional<Long> findIdByOib(String oib);
+
+    @Query("select c.oib from Client c where c.oib in :oibs")
+    List<String> findExistingOibs(Collection<String> oibs);
+
+    @Query("""
+            select c from Client c
+            where c.id > :afterId
+              and (:status is null or c.status = :status)
+              and (:lastNamePattern is null or c.lastName like :lastNamePattern escape '\\')
+            order by c.id
+            """)
+    List<Client> findPageAfter(long afterId, Status status, String lastNamePattern, Limit limit);
+
+    // Client and card in one outer join on the unique card.client_id index, projected straight
+    // into the read model so no entities are loaded
+    @Query("""
+            select new com.RBA_assignment.RBA_assignment.dto.ClientWithCardDTO(
+                c.id, c.firstName, c.lastName, c.oib, c.status, k.cardNumber, k.status)
+            from Client c left join Card k on k.client = c
+            where c.oib = :oib
+            """)
+    Optional<ClientWithCardDTO> findWithCardByOib(String oib);
+
+    // findPageAfter with each client's card joined in
+    @Query("""
+            select new com.RBA_assignment.RBA_assignment.dto.ClientWithCardDTO(
+                c.id, c.firstName, c.lastName, c.oib, c.status, k.cardNumber, k.status)
+            from Client c left join Card k on k.client = c
+            where c.id > :afterId
+              and (:status is null or c.status = :status)
+              and (:lastNamePattern is null or c.lastName like :lastNamePattern escape '\\')
+            order by c.id
+            """)
+    List<ClientWithCardDTO> findWithCardPageAfter(long afterId, Status status, String lastNamePattern, Limit limit);
+
+    // Clients in a status that have no card yet, in id order for keyset progress. The card
+    // lookup goes through the unique index on card.client_id
+    @Query("""
+            select c from Client c
+            where c.id > :afterId
+              and c.status = :status
+              and not exists (select 1 from Card k where k.client = c)
+            order by c.id
+            """)
+    List<Client> findWithoutCardAfter(long afterId, Status status, Limit limit);
+
+    // Must be consumed inside a transaction and closed; rows are fetched lazily in fetch-size chunks
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Client c order by c.id")
+    Stream<Client> streamAll();
+
+    // Only the columns the lookup index keeps, so the scan loads no entities
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c.oib as oib, c.id as id, c.status as status from Client c")
+    Stream<IndexRow> streamIndexRows();
+
+    // Only the columns the client search index keeps
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c.id as id, c.firstName as firstName, c.lastName as lastName from Client c")
+    Stream<NameRow> streamNameRows();
+
+    // Name search without the index: a scan matching lower-case letter prefixes, best guess
+    // ranking by last name
+    @Query("""
+            select c from Client c
+            where lower(c.lastName) like :pattern or lower(c.firstName) like :pattern
+            order by lower(c.lastName), lower(c.firstName), c.id
+            """)
+    List<Client> findByNamePrefix(String pattern, Limit limit);
+
+    // Id and version of the row for an ETag, without loading the entity; the id tells apart a
+    // row deleted and created again at the same version
+    @Query("select concat(c.id, '-', c.version) from Client c where c.oib = :oib")
+    Optional<String> findVersionTagByOib(String oib);
+
+    // Single-row status change that skips the write when the status is already current. H2's OLD
+    // TABLE over the update returns the changed row as it was, so the status it replaced comes
+    // back from the same statement; empty when nothing changed
+    @Query(nativeQuery = true, value = """
+            select oib as oib, status as status from old table (
+                update client set status = :status, version = version + 1
+                where oib = :oib and (status is null or status <> :status))
+            """)
+    List<StatusChange> updateStatus(String oib, String status);
+
+    // Set-based status change; rows already in the target status are left alone. Returns each
+    // changed row with the status it had before, so callers act only on the OIBs that moved
+    @Query(nativeQuery = true, value = """
+            select oib as oib, status as status from old table (
+                update client set status = :status, version = version + 1
+                where oib in :oibs and (status is null or status <> :status))
+            """)
+    List<StatusChange> updateStatusForOibs(String status, Collection<String> oibs);
+
+    @Query("select c.status as status, count(c) as total from Client c group by c.status")
+    List<StatusCount> countByStatus();
+
+    interface IndexRow {
+        String getOib();
+
+        Long getId();
+
+        Status getStatus();
+    }
+
+    interface NameRow {
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+    }
 }
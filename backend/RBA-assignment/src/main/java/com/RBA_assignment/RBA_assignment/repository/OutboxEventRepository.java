@@ -0,0 +1,31 @@
+package com.RBA_assignment.RBA_assignment.repository;
+
+import com.RBA_assignment.RBA_assignment.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Due events, oldest first. An event waits while an older event for the same OIB is
+    // backing off, so a retry never lets a later status overtake an earlier one
+    @Query("""
+            select e from OutboxEvent e
+            where e.nextAttemptAt <= :now
+              and not exists (
+                  select 1 from OutboxEvent p
+                  where p.oib = e.oib and p.type = e.type and p.id < e.id and p.nextAttemptAt > :now
+              )
+            order by e.id
+            """)
+    List<OutboxEvent> findDue(Instant now, Limit limit);
+
+    // Events due now, leaving out those backing off after a failed delivery
+    @Query("select count(e) from OutboxEvent e where e.nextAttemptAt <= :now")
+    long countDue(Instant now);
+}
@@ -0,0 +1,10 @@
+package com.RBA_assignment.RBA_assignment.repository;
+
+import com.RBA_assignment.RBA_assignment.model.Status;
+
+// A row a status update changed, with the status it had before; null when it had none
+public interface StatusChange {
+    String getOib();
+
+    Status getStatus();
+}
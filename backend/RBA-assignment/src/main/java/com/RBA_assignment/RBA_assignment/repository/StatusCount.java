@@ -0,0 +1,10 @@
+package com.RBA_assignment.RBA_assignment.repository;
+
+import com.RBA_assignment.RBA_assignment.model.Status;
+
+// Rows per status; a null status counts the rows that have none
+public interface StatusCount {
+    Status getStatus();
+
+    long getTotal();
+}
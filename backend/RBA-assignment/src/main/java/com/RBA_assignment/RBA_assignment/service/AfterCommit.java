@@ -0,0 +1,43 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// The in-memory views of the tables must never show a write its transaction rolled back, so they
+// apply their changes here once it commits. Outside a transaction the write is already committed
+// and the change runs at once
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable change) {
+        run(change, () -> {
+        });
+    }
+
+    // Also runs settled once the transaction has finished either way, after the change when it
+    // committed; lets a caller track changes still waiting on their transaction
+    static void run(Runnable change, Runnable settled) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            change.run();
+                        }
+                    } finally {
+                        settled.run();
+                    }
+                }
+            });
+        } else {
+            try {
+                change.run();
+            } finally {
+                settled.run();
+            }
+        }
+    }
+}
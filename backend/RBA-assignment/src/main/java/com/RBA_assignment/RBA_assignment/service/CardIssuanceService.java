@@ -0,0 +1,367 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.CardIssuanceJobDTO;
+import com.RBA_assignment.RBA_assignment.dto.ChangeEvent;
+import com.RBA_assignment.RBA_assignment.dto.ChangeEventBatch;
+import com.RBA_assignment.RBA_assignment.model.Card;
+import com.RBA_assignment.RBA_assignment.model.CardIssuanceJob;
+import com.RBA_assignment.RBA_assignment.model.CardIssuanceJobState;
+import com.RBA_assignment.RBA_assignment.model.Client;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.repository.CardIssuanceJobRepository;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.FetchNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Issues cards to every client in a status that has none. One coordinator walks the clients
+// without a card in id order and hands chunks to a bounded worker pool; each chunk allocates
+// numbers and inserts its cards in one batched transaction. The job row records the highest
+// client id below which every chunk has finished, so a job interrupted by a crash or shutdown
+// resumes from there on the next start. Re-reading a chunk is harmless because the query
+// only returns clients that still have no card
+@Slf4j
+@Service
+public class CardIssuanceService {
+    private final ClientRepository clientRepository;
+    private final CardRepository cardRepository;
+    private final CardIssuanceJobRepository cardIssuanceJobRepository;
+    private final CardNumberAllocator cardNumberAllocator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final LookupCache lookupCache;
+    private final LookupIndex lookupIndex;
+    private final StatusAggregates statusAggregates;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("card-issuance-job-"));
+    private final AtomicReference<RunningJob> active = new AtomicReference<>();
+
+    public CardIssuanceService(
+            ClientRepository clientRepository,
+            CardRepository cardRepository,
+            CardIssuanceJobRepository cardIssuanceJobRepository,
+            CardNumberAllocator cardNumberAllocator,
+            EntityManager entityManager,
+            TransactionTemplate transactionTemplate,
+            LookupCache lookupCache,
+            LookupIndex lookupIndex,
+            StatusAggregates statusAggregates,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${card.issuance.chunk-size}") int chunkSize,
+            @Value("${card.issuance.workers}") int workers) {
+        this.clientRepository = clientRepository;
+        this.cardRepository = cardRepository;
+        this.cardIssuanceJobRepository = cardIssuanceJobRepository;
+        this.cardNumberAllocator = cardNumberAllocator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.lookupCache = lookupCache;
+        this.lookupIndex = lookupIndex;
+        this.statusAggregates = statusAggregates;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        // Enough queued work to keep every worker busy while the coordinator reads the next chunk
+        this.maxChunksInFlight = workers * 2;
+        this.workers = new ThreadPoolExecutor(
+                workers,
+                workers,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("card-issuance-")
+        );
+    }
+
+    public CardIssuanceJobDTO start(Status clientStatus) {
+        RunningJob running = new RunningJob();
+        if (!active.compareAndSet(null, running)) {
+            throw new EntityExistsException("A card issuance job is already running");
+        }
+        try {
+            Instant now = Instant.now();
+            running.attach(cardIssuanceJobRepository.save(CardIssuanceJob.builder()
+                    .clientStatus(clientStatus)
+                    .state(CardIssuanceJobState.RUNNING)
+                    .startedAt(now)
+                    .updatedAt(now)
+                    .build()));
+        } catch (RuntimeException e) {
+            active.set(null);
+            throw e;
+        }
+        log.info("Starting card issuance job {} for {} clients", running.job.getId(), clientStatus);
+        coordinator.execute(() -> run(running));
+        return running.snapshot();
+    }
+
+    public CardIssuanceJobDTO getJob(Long id) {
+        RunningJob running = active.get();
+        if (running != null && running.job != null && running.job.getId().equals(id)) {
+            return running.snapshot();
+        }
+        return cardIssuanceJobRepository.findById(id)
+                .map(job -> toDto(job, job.getIssued(), job.getSkipped(), averageCardsPerSecond(job)))
+                .orElseThrow(() -> new FetchNotFoundException("Card issuance job not found: " + id, id));
+    }
+
+    // A job still marked running was cut off by a crash or shutdown. Only the newest one is
+    // picked up again, older ones would only repeat its work
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        List<CardIssuanceJob> interrupted = cardIssuanceJobRepository.findByStateOrderById(CardIssuanceJobState.RUNNING);
+        if (interrupted.isEmpty()) {
+            return;
+        }
+        CardIssuanceJob latest = interrupted.getLast();
+        for (CardIssuanceJob job : interrupted.subList(0, interrupted.size() - 1)) {
+            finish(job, CardIssuanceJobState.FAILED, "Superseded by job " + latest.getId());
+        }
+        RunningJob running = new RunningJob();
+        running.attach(latest);
+        if (active.compareAndSet(null, running)) {
+            log.info("Resuming card issuance job {} after client id {}", latest.getId(), latest.getLastClientId());
+            coordinator.execute(() -> run(running));
+        }
+    }
+
+    private void run(RunningJob running) {
+        CardIssuanceJob job = running.job;
+        Deque<PendingChunk> pending = new ArrayDeque<>();
+        Semaphore permits = new Semaphore(maxChunksInFlight);
+        long cursor = job.getLastClientId();
+        try {
+            List<Client> clients;
+            while (!(clients = clientRepository.findWithoutCardAfter(cursor, job.getClientStatus(), Limit.of(chunkSize))).isEmpty()) {
+                cursor = clients.getLast().getId();
+                permits.acquire();
+                List<Client> chunk = clients;
+                Future<ChunkResult> result = workers.submit(() -> {
+                    try {
+                        return issueChunk(chunk, running);
+                    } finally {
+                        permits.release();
+                    }
+                });
+                pending.addLast(new PendingChunk(cursor, result));
+                checkpoint(job, pending, false);
+            }
+            checkpoint(job, pending, true);
+            finish(job, CardIssuanceJobState.COMPLETED, null);
+            log.info("Card issuance job {} completed: {} cards issued, {} skipped, {} cards/s",
+                    job.getId(), job.getIssued(), job.getSkipped(), String.format("%.0f", running.cardsPerSecond()));
+        } catch (InterruptedException e) {
+            // Shutdown: the job stays RUNNING at its last checkpoint and resumes on the next start
+            Thread.currentThread().interrupt();
+            log.info("Card issuance job {} interrupted at client id {}", job.getId(), job.getLastClientId());
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.error("Card issuance job {} failed at client id {}", job.getId(), job.getLastClientId(), cause);
+            finish(job, CardIssuanceJobState.FAILED, String.valueOf(cause.getMessage()));
+        } finally {
+            active.set(null);
+        }
+    }
+
+    // Moves the checkpoint over every finished chunk at the head of the queue. Chunks finish out
+    // of order, but the checkpoint may only pass a chunk once all chunks before it are done
+    private void checkpoint(CardIssuanceJob job, Deque<PendingChunk> pending, boolean waitForAll)
+            throws InterruptedException, ExecutionException {
+        boolean advanced = false;
+        while (!pending.isEmpty() && (waitForAll || pending.peekFirst().result().isDone())) {
+            PendingChunk chunk = pending.removeFirst();
+            ChunkResult result = chunk.result().get();
+            job.setLastClientId(chunk.lastClientId());
+            job.setIssued(job.getIssued() + result.issued());
+            job.setSkipped(job.getSkipped() + result.skipped());
+            advanced = true;
+        }
+        if (advanced) {
+            job.setUpdatedAt(Instant.now());
+            cardIssuanceJobRepository.save(job);
+        }
+    }
+
+    private ChunkResult issueChunk(List<Client> clients, RunningJob running) {
+        List<Card> cards = clients.stream()
+                .map(client -> Card.builder()
+                        .cardNumber(cardNumberAllocator.next())
+                        .oib(client.getOib())
+                        .status(client.getStatus())
+                        .client(client)
+                        .build())
+                .toList();
+        int issued;
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(cards));
+            issued = cards.size();
+        } catch (DataIntegrityViolationException e) {
+            // One of these clients got a card elsewhere since the chunk was read, or a card number
+            // was taken already; insert one by one
+            issued = 0;
+            List<String> clashed = new ArrayList<>();
+            for (Card card : cards) {
+                if (insertOne(card)) {
+                    issued++;
+                } else {
+                    clashed.add(card.getOib());
+                }
+            }
+            // A card requested before its client existed holds the OIB without a client, so the
+            // anti-join keeps offering that client; attaching the card ends it
+            if (!clashed.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> cardRepository.linkToClients(clashed));
+            }
+        }
+        // Misses are cached, so a client looked up before issuance would otherwise keep showing no card
+        for (Card card : cards) {
+            lookupCache.evictCard(card.getOib(), card.getCardNumber());
+        }
+        running.issued.addAndGet(issued);
+        running.skipped.addAndGet(cards.size() - issued);
+        return new ChunkResult(issued, cards.size() - issued);
+    }
+
+    // False when the client already has a card. A card number that is taken, by a number a caller
+    // chose or one stored before the allocator, is swapped for a fresh one and tried again
+    private boolean insertOne(Card card) {
+        for (int attempt = 1; ; attempt++) {
+            card.setId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(List.of(card)));
+                return true;
+            } catch (DataIntegrityViolationException duplicate) {
+                if (cardRepository.existsByOib(card.getOib())) {
+                    log.debug("Client with OIB {} already has a card, skipping", card.getOib());
+                    return false;
+                }
+                if (attempt == CardNumberAllocator.MAX_ATTEMPTS) {
+                    throw duplicate;
+                }
+                String taken = card.getCardNumber();
+                card.setCardNumber(cardNumberAllocator.next());
+                log.warn("Card number {} is already taken, issuing {} instead", taken, card.getCardNumber());
+            }
+        }
+    }
+
+    private void insert(List<Card> cards) {
+        List<ChangeEvent> events = new ArrayList<>(cards.size());
+        for (Card card : cards) {
+            entityManager.persist(card);
+            lookupIndex.cardSaved(card.getOib(), card.getCardNumber(), card.getStatus());
+            statusAggregates.cardAdded(card.getStatus());
+            events.add(ChangeEvent.cardSaved(card.getOib(), card.getCardNumber(), card.getStatus()));
+        }
+        // One change stream message per chunk; one per card would evict every subscriber of a big job
+        eventPublisher.publishEvent(new ChangeEventBatch(events));
+        // Flushed through the repository so a clash arrives translated, as the
+        // DataIntegrityViolationException the per-card fallback expects
+        cardRepository.flush();
+        entityManager.clear();
+    }
+
+    private void finish(CardIssuanceJob job, CardIssuanceJobState state, String error) {
+        Instant now = Instant.now();
+        job.setState(state);
+        job.setUpdatedAt(now);
+        job.setFinishedAt(now);
+        job.setError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+        cardIssuanceJobRepository.save(job);
+    }
+
+    // Over the whole job, including any time it spent interrupted before resuming
+    private static double averageCardsPerSecond(CardIssuanceJob job) {
+        Instant end = job.getFinishedAt() != null ? job.getFinishedAt() : job.getUpdatedAt();
+        double seconds = Duration.between(job.getStartedAt(), end).toNanos() / 1e9;
+        return seconds > 0 ? job.getIssued() / seconds : 0;
+    }
+
+    private static CardIssuanceJobDTO toDto(CardIssuanceJob job, long issued, long skipped, double cardsPerSecond) {
+        return new CardIssuanceJobDTO(
+                job.getId(),
+                job.getClientStatus().toJson(),
+                job.getState().name(),
+                job.getLastClientId(),
+                issued,
+                skipped,
+                cardsPerSecond,
+                job.getStartedAt(),
+                job.getUpdatedAt(),
+                job.getFinishedAt(),
+                job.getError()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        coordinator.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    // Live counters of the job in progress; the job row only moves at checkpoints
+    private static final class RunningJob {
+        private final AtomicLong issued = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private volatile CardIssuanceJob job;
+        private long startNanos;
+        private long issuedAtStart;
+
+        void attach(CardIssuanceJob job) {
+            this.job = job;
+            this.issued.set(job.getIssued());
+            this.skipped.set(job.getSkipped());
+            this.issuedAtStart = job.getIssued();
+            this.startNanos = System.nanoTime();
+        }
+
+        double cardsPerSecond() {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            return seconds > 0 ? (issued.get() - issuedAtStart) / seconds : 0;
+        }
+
+        CardIssuanceJobDTO snapshot() {
+            return toDto(job, issued.get(), skipped.get(), cardsPerSecond());
+        }
+    }
+
+    private record PendingChunk(long lastClientId, Future<ChunkResult> result) {
+    }
+
+    private record ChunkResult(int issued, int skipped) {
+    }
+}
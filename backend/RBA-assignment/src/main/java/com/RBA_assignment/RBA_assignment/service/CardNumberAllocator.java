@@ -0,0 +1,76 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.utils.CardNumberGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Hands out card numbers that never repeat each other. Each instance reserves a block of
+// sequence values from the database and then allocates from it with a single atomic increment,
+// so there is neither a global lock nor a collision lookup per card. Numbers from elsewhere, given
+// by callers or stored before the allocator, can still match one, so inserts retry on a clash
+@Slf4j
+@Service
+public class CardNumberAllocator {
+    // Fresh numbers tried per card before giving up; each clash needs a foreign number to match
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int issuerDigit;
+    private final long blockSize;
+    private final AtomicReference<Block> current = new AtomicReference<>(Block.EMPTY);
+
+    public CardNumberAllocator(
+            JdbcTemplate jdbcTemplate,
+            @Value("${card.number.issuer-digit}") int issuerDigit,
+            @Value("${card.number.block-size}") long blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.issuerDigit = issuerDigit;
+        this.blockSize = blockSize;
+    }
+
+    public String next() {
+        while (true) {
+            Block block = current.get();
+            long sequence = block.take();
+            if (sequence >= 0) {
+                return CardNumberGenerator.generate(issuerDigit, sequence);
+            }
+            // Threads racing on an exhausted block may each reserve one; the losers'
+            // blocks are skipped, which only leaves gaps in the sequence space
+            current.compareAndSet(block, reserveBlock());
+        }
+    }
+
+    private Block reserveBlock() {
+        Long blockIndex = jdbcTemplate.queryForObject("select next value for card_number_block_seq", Long.class);
+        long start = blockIndex * blockSize;
+        long end = start + blockSize;
+        if (end > CardNumberGenerator.SEQUENCE_SPACE) {
+            throw new IllegalStateException("Card number space exhausted at block " + blockIndex);
+        }
+        log.debug("Reserved card number block {} [{}, {})", blockIndex, start, end);
+        return new Block(start, end);
+    }
+
+    private static final class Block {
+        static final Block EMPTY = new Block(0, 0);
+
+        private final AtomicLong next;
+        private final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+
+        long take() {
+            long value = next.getAndIncrement();
+            return value < end ? value : -1;
+        }
+    }
+}
@@ -2,33 +2,69 @@ package com.RBA_assignment.RBA_assignment.service;
 
 import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
 import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CardRequestService {
-    private final RestTemplate restTemplate;
+    private final RestTemplate cardServiceRestTemplate;
+    private final CircuitBreaker cardServiceCircuitBreaker;
+    private final Bulkhead cardServiceBulkhead;
+    // Calls currently on the wire, by OIB
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
 
     @Value("${card.request.url}")
     private String url;
 
-    public void requestCardForClient(ClientDTO client) {
+    // Propagates failures so the caller can retry. A caller that finds a call for the same
+    // OIB already running waits for it and gets its outcome instead of sending another one
+    public void sendCardRequest(ClientDTO client) {
+        CompletableFuture<Void> call = new CompletableFuture<>();
+        CompletableFuture<Void> running = inFlight.putIfAbsent(client.getOib(), call);
+        if (running != null) {
+            log.debug("Joining running card request for OIB {}", client.getOib());
+            join(running);
+            return;
+        }
+        try {
+            cardServiceCircuitBreaker.executeRunnable(() -> cardServiceBulkhead.executeRunnable(() -> post(client)));
+            call.complete(null);
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(client.getOib(), call);
+        }
+    }
+
+    private void post(ClientDTO client) {
+        cardServiceRestTemplate.postForObject(
+                url,
+                client,
+                CardStatusMessage.class
+        );
+    }
+
+    private static void join(CompletableFuture<Void> call) {
         try {
-            restTemplate.postForObject(
-                    url,
-                    client,
-                    CardStatusMessage.class
-            );
-        } catch (HttpServerErrorException.InternalServerError e) {
-            log.warn("Card may already exist for client with OIB {} (received 500 from card service)", client.getOib());
-        } catch (Exception e) {
-            log.error("Unexpected error while requesting card: {}", e.getMessage());
+            call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
 }
@@ -2,6 +2,8 @@ package com.RBA_assignment.RBA_assignment.service;
 
 import com.RBA_assignment.RBA_assignment.dto.CardDTO;
 import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.dto.CursorPage;
+import com.RBA_assignment.RBA_assignment.model.Status;
 
 import java.util.List;
 
@@ -10,8 +12,9 @@ public interface CardService {
     CardDTO createCard(CardDTO cardDTO);
     CardDTO getCardByCardNumber(String cardNumber);
     CardDTO getCardByOib(String oib);
+    String getCardVersionTag(String oib);
     List<CardDTO> getAllCards();
+    CursorPage<CardDTO> getCardsPage(String cursor, Integer size, Status status);
     CardDTO updateCard(CardDTO cardDTO);
     CardDTO deleteCard(String cardNumber);
-    void eventChangeCardStatus(String oib, String status);
 }
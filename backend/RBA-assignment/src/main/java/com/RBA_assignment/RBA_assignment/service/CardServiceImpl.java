@@ -1,26 +1,44 @@
 package com.RBA_assignment.RBA_assignment.service;
 
 import com.RBA_assignment.RBA_assignment.dto.CardDTO;
+import com.RBA_assignment.RBA_assignment.dto.ChangeEvent;
 import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.dto.CursorPage;
 import com.RBA_assignment.RBA_assignment.mapper.CardMapper;
 import com.RBA_assignment.RBA_assignment.model.Card;
 import com.RBA_assignment.RBA_assignment.model.Status;
 import com.RBA_assignment.RBA_assignment.repository.CardRepository;
-import com.RBA_assignment.RBA_assignment.utils.CardNumberGenerator;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.RBA_assignment.RBA_assignment.utils.KeysetCursor;
 import jakarta.persistence.EntityExistsException;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.FetchNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
+// Every public method is timed, tagged with its name
 @Slf4j
 @Service
+@Timed(value = "card.service", histogram = true)
 @RequiredArgsConstructor
 public class CardServiceImpl implements CardService {
 
     private final CardRepository cardRepository;
+    private final ClientRepository clientRepository;
+    private final LookupCache lookupCache;
+    private final CardNumberAllocator cardNumberAllocator;
+    private final LookupIndex lookupIndex;
+    private final StatusAggregates statusAggregates;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     private void logCardNotFound(String cardNumber) {
         log.error("Card not found with number: {}", cardNumber);
@@ -28,48 +46,92 @@ public class CardServiceImpl implements CardService {
 
     private CardDTO createCardInternal(String cardNumber, String oib, Status status) {
         log.info("Attempting to create card with number: {}", cardNumber);
-        if (cardRepository.findByCardNumber(cardNumber).isPresent()) {
-            log.error("Card already exists with number: {}", cardNumber);
-            throw new EntityExistsException("Card already exists with number: " + cardNumber);
-        }
+        // A card for an OIB without a client is kept unattached until that client is created
+        Long clientId = lookupIndex.isReady() ? lookupIndex.clientId(oib) : clientRepository.findIdByOib(oib).orElse(null);
         Card card = Card.builder()
                 .cardNumber(cardNumber)
                 .oib(oib)
                 .status(status)
+                .client(clientId == null ? null : clientRepository.getReferenceById(clientId))
                 .build();
+        CardDTO created = CardMapper.cardToDto(cardRepository.save(card));
+        lookupCache.evictCard(oib, cardNumber);
+        lookupIndex.cardSaved(oib, cardNumber, status);
+        statusAggregates.cardAdded(status);
+        eventPublisher.publishEvent(ChangeEvent.cardSaved(oib, cardNumber, status));
         log.info("Card created successfully: {}", card);
-        return CardMapper.cardToDto(cardRepository.save(card));
+        return created;
     }
 
     @Override
     public void createCardNewRequest(ClientDTO newCardRequest) {
-        String cardNumber = CardNumberGenerator.generate();
-        createCardInternal(cardNumber, newCardRequest.getOib(), newCardRequest.getStatus());
+        // Allocated numbers never repeat each other, but a number given to createCard or stored before
+        // the allocator can match one. Such a clash is retried with a fresh number, an OIB clash is not
+        String oib = newCardRequest.getOib();
+        for (int attempt = 1; ; attempt++) {
+            String cardNumber = cardNumberAllocator.next();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    createCardInternal(cardNumber, oib, newCardRequest.getStatus());
+                    cardRepository.flush();
+                });
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == CardNumberAllocator.MAX_ATTEMPTS || cardRepository.existsByOib(oib)) {
+                    throw e;
+                }
+                log.warn("Card number {} is already taken, allocating another", cardNumber);
+            }
+        }
     }
 
     @Override
+    @Transactional
     public CardDTO createCard(CardDTO cardDTO) {
+        boolean exists = lookupIndex.isReady()
+                ? lookupIndex.cardNumberExists(cardDTO.getCardNumber())
+                : cardRepository.findByCardNumber(cardDTO.getCardNumber()).isPresent();
+        if (exists) {
+            log.error("Card already exists with number: {}", cardDTO.getCardNumber());
+            throw new EntityExistsException("Card already exists with number: " + cardDTO.getCardNumber());
+        }
         return createCardInternal(cardDTO.getCardNumber(), cardDTO.getOib(), cardDTO.getStatus());
     }
 
     @Override
     public CardDTO getCardByCardNumber(String cardNumber) {
         log.info("Fetching card with number: {}", cardNumber);
-        return CardMapper.cardToDto(cardRepository.findByCardNumber(cardNumber)
-                .orElseThrow(() -> {
-                    logCardNotFound(cardNumber);
-                    return new FetchNotFoundException("Card not found with number: " + cardNumber, cardNumber);
-                }));
+        CardDTO card = lookupIndex.isReady()
+                ? lookupIndex.cardByNumber(cardNumber)
+                : lookupCache.cardByNumber(cardNumber, () -> cardRepository.findByCardNumber(cardNumber)
+                        .map(CardMapper::cardToDto)
+                        .orElse(null));
+        if (card == null) {
+            logCardNotFound(cardNumber);
+            throw new FetchNotFoundException("Card not found with number: " + cardNumber, cardNumber);
+        }
+        return card;
     }
 
     @Override
     public CardDTO getCardByOib(String oib) {
         log.info("Fetching card with OIB: {}", oib);
-        return CardMapper.cardToDto(cardRepository.findByOib(oib)
-                .orElseThrow(() -> {
-                    log.error("Card not found for OIB: {}", oib);
-                    return new FetchNotFoundException("Card not found for OIB: " + oib, oib);
-                }));
+        CardDTO card = lookupIndex.isReady()
+                ? lookupIndex.cardByOib(oib)
+                : lookupCache.cardByOib(oib, () -> cardRepository.findByOib(oib)
+                        .map(CardMapper::cardToDto)
+                        .orElse(null));
+        if (card == null) {
+            log.error("Card not found for OIB: {}", oib);
+            throw new FetchNotFoundException("Card not found for OIB: " + oib, oib);
+        }
+        return card;
+    }
+
+    // Null when the client has no card
+    @Override
+    public String getCardVersionTag(String oib) {
+        return cardRepository.findVersionTagByOib(oib).orElse(null);
     }
 
     @Override
@@ -78,6 +140,18 @@ public class CardServiceImpl implements CardService {
         return cardRepository.findAll().stream().map(CardMapper::cardToDto).toList();
     }
 
+    @Override
+    public CursorPage<CardDTO> getCardsPage(String cursor, Integer size, Status status) {
+        int pageSize = KeysetCursor.pageSize(size);
+        List<Card> rows = cardRepository.findPageAfter(KeysetCursor.decode(cursor), status, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<Card> page = hasMore ? rows.subList(0, pageSize) : rows;
+        return new CursorPage<>(
+                page.stream().map(CardMapper::cardToDto).toList(),
+                hasMore ? KeysetCursor.encode(page.getLast().getId()) : null
+        );
+    }
+
     @Override
     public CardDTO updateCard(CardDTO cardDTO) {
         Card card = cardRepository.findByCardNumber(cardDTO.getCardNumber())
@@ -85,27 +159,23 @@ public class CardServiceImpl implements CardService {
                     logCardNotFound(cardDTO.getCardNumber());
                     return new FetchNotFoundException("Card not found with number: " + cardDTO.getCardNumber(), cardDTO.getCardNumber());
                 });
-        return CardMapper.cardToDto(cardRepository.save(card));
+        lookupCache.evictCard(card.getOib(), card.getCardNumber());
+        CardDTO updated = CardMapper.cardToDto(cardRepository.save(card));
+        eventPublisher.publishEvent(ChangeEvent.cardSaved(updated.getOib(), updated.getCardNumber(), updated.getStatus()));
+        return updated;
     }
 
     @Override
+    @Transactional
     public CardDTO deleteCard(String cardNumber) {
         Card card = cardRepository.findByCardNumber(cardNumber)
                 .orElseThrow(() -> new FetchNotFoundException("Card not found with number: " + cardNumber, cardNumber));
         cardRepository.deleteById(card.getId());
+        lookupCache.evictCard(card.getOib(), cardNumber);
+        lookupIndex.cardRemoved(card.getOib(), cardNumber);
+        statusAggregates.cardRemoved(card.getStatus());
+        eventPublisher.publishEvent(ChangeEvent.cardDeleted(card.getOib(), cardNumber));
         log.info("Card deleted: {}", card);
         return CardMapper.cardToDto(card);
     }
-
-    @Override
-    public void eventChangeCardStatus(String oib, String status) {
-        log.info("Changing card status for OIB: {} to status: {}", oib, status);
-        Card card = cardRepository.findByOib(oib)
-                .orElseThrow(() -> new FetchNotFoundException("Card not found for OIB: " + oib, oib));
-
-        Status newStatus = Status.valueOf(status.toUpperCase());
-        card.setStatus(newStatus);
-        cardRepository.save(card);
-        log.info("Card status changed successfully: {}", status);
-    }
 }
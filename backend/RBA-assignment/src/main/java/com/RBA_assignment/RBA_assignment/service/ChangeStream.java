@@ -0,0 +1,180 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.ChangeEvent;
+import com.RBA_assignment.RBA_assignment.dto.ChangeEventBatch;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fans change events out to Server-Sent Event subscribers once the write that produced them has
+// committed. Each event is serialized once; every subscriber gets its own bounded queue and at
+// most one sender at a time, so a slow connection never holds up the writer or other subscribers.
+// A subscriber whose queue fills up is disconnected and has to reload what it shows on reconnect.
+// Queue entries are finished SSE frames, shared by all subscribers
+@Slf4j
+@Service
+public class ChangeStream {
+    // Keep-alive comment; compared by identity, as a full queue drops it instead of evicting
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("").build();
+
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong evicted = new AtomicLong();
+    // A write blocked on a stalled connection parks only its own virtual thread
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("change-stream-", 1).factory());
+    private final ScheduledExecutorService heartbeats =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("change-stream-heartbeat-"));
+
+    public ChangeStream(
+            ObjectMapper objectMapper,
+            @Value("${change-stream.max-subscribers}") int maxSubscribers,
+            @Value("${change-stream.buffer-size}") int bufferSize,
+            @Value("${change-stream.timeout-ms}") long timeoutMs,
+            @Value("${change-stream.heartbeat-ms}") long heartbeatMs) {
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        heartbeats.scheduleWithFixedDelay(() -> broadcast(HEARTBEAT), heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Returns null when the subscriber limit is reached
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            log.warn("Change stream subscriber limit of {} reached, refusing subscription", maxSubscribers);
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(newEmitter(timeoutMs), new ArrayBlockingQueue<>(bufferSize));
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.debug("Change stream subscriber added, {} connected", subscribers.size());
+        return subscriber.emitter;
+    }
+
+    // Runs after commit, or immediately for writes made outside a transaction; nothing is sent
+    // for a rolled back write
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(ChangeEvent event) {
+        publish(event, event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(ChangeEventBatch batch) {
+        if (!batch.getEvents().isEmpty()) {
+            publish(batch.getEvents(), batch);
+        }
+    }
+
+    private void publish(Object payload, Object event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            broadcast(SseEmitter.event().data(objectMapper.writeValueAsString(payload)).build());
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize change event {}", event, e);
+        }
+    }
+
+    // Separate so tests can watch what is sent
+    SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void broadcast(Set<DataWithMediaType> frame) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.offer(frame)) {
+                schedule(subscriber);
+            } else if (frame != HEARTBEAT) {
+                evict(subscriber);
+            }
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            do {
+                Set<DataWithMediaType> frame;
+                while ((frame = subscriber.queue.poll()) != null) {
+                    subscriber.emitter.send(frame);
+                }
+                subscriber.sending.set(false);
+                // An event queued after the last poll but before the flag was cleared found a
+                // sender still running; pick it up unless a new sender has already done so
+            } while (!subscriber.queue.isEmpty() && subscriber.sending.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            // Disconnected or already completed; the framework completes the emitter on a failed write
+            log.debug("Change stream subscriber gone: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+        }
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            evicted.incrementAndGet();
+            log.warn("Change stream subscriber fell {} events behind, disconnecting it", bufferSize);
+            subscriber.queue.clear();
+            // The emitter locks around a write, so completing it here would hold up the writer
+            // behind the very connection that stalled
+            senders.execute(subscriber.emitter::complete);
+        }
+    }
+
+    public int getSubscribers() {
+        return subscribers.size();
+    }
+
+    public long getEvicted() {
+        return evicted.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
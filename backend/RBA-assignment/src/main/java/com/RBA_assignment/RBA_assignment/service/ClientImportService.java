@@ -0,0 +1,237 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.ChangeEvent;
+import com.RBA_assignment.RBA_assignment.dto.ChangeEventBatch;
+import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.dto.ClientImportReport;
+import com.RBA_assignment.RBA_assignment.dto.ClientImportResult;
+import com.RBA_assignment.RBA_assignment.dto.ClientImportResult.Outcome;
+import com.RBA_assignment.RBA_assignment.mapper.ClientMapper;
+import com.RBA_assignment.RBA_assignment.model.Client;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Imports clients from a JSON array or NDJSON stream. Rows are read lazily and handled in chunks:
+// each chunk is validated, checked against existing OIBs with one query and inserted in JDBC
+// batches in its own transaction, so memory stays flat apart from the per-row report.
+// Card requests are not queued here; clients without a card are picked up by card issuance
+@Slf4j
+@Service
+public class ClientImportService {
+    private final ClientRepository clientRepository;
+    private final CardRepository cardRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final LookupCache lookupCache;
+    private final LookupIndex lookupIndex;
+    private final ClientSearchIndex clientSearchIndex;
+    private final StatusAggregates statusAggregates;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public ClientImportService(
+            ClientRepository clientRepository,
+            CardRepository cardRepository,
+            EntityManager entityManager,
+            TransactionTemplate transactionTemplate,
+            LookupCache lookupCache,
+            LookupIndex lookupIndex,
+            ClientSearchIndex clientSearchIndex,
+            StatusAggregates statusAggregates,
+            ApplicationEventPublisher eventPublisher,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${client.import.chunk-size}") int chunkSize) {
+        this.clientRepository = clientRepository;
+        this.cardRepository = cardRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.lookupCache = lookupCache;
+        this.lookupIndex = lookupIndex;
+        this.clientSearchIndex = clientSearchIndex;
+        this.statusAggregates = statusAggregates;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public ClientImportReport importClients(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        ClientImportReport report = new ClientImportReport();
+        Set<String> seen = new HashSet<>();
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        int row = 0;
+
+        // A top-level array is unwrapped, otherwise values are read one after another (NDJSON)
+        try (MappingIterator<ClientDTO> rows = objectMapper.readerFor(ClientDTO.class).readValues(in)) {
+            while (rows.hasNextValue()) {
+                row++;
+                ClientDTO client;
+                try {
+                    client = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    // The iterator skips past the broken value, so the remaining rows still count
+                    report.getRows().add(new ClientImportResult(row, null, Outcome.INVALID, e.getOriginalMessage()));
+                    continue;
+                }
+                ClientImportResult result = new ClientImportResult(row, client.getOib(), null, null);
+                report.getRows().add(result);
+
+                String violations = validate(client);
+                if (violations != null) {
+                    result.setResult(Outcome.INVALID);
+                    result.setMessage(violations);
+                } else if (!seen.add(client.getOib())) {
+                    result.setResult(Outcome.DUPLICATE);
+                    result.setMessage("OIB appears earlier in the import");
+                } else {
+                    chunk.add(new PendingRow(client, result));
+                    if (chunk.size() == chunkSize) {
+                        importChunk(chunk);
+                        chunk.clear();
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // Broken syntax, nothing after this point can be read reliably
+            report.setError("Input unreadable after row " + row + ": " + e.getOriginalMessage());
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk);
+        }
+
+        summarize(report);
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("Imported {} of {} clients in {} ms ({} rows/s), {} duplicates, {} invalid, {} failed",
+                report.getCreated(), report.getTotal(), elapsedMs, report.getTotal() * 1000L / elapsedMs,
+                report.getDuplicates(), report.getInvalid(), report.getFailed());
+        return report;
+    }
+
+    private void importChunk(List<PendingRow> chunk) {
+        try {
+            Set<String> existing = transactionTemplate.execute(status -> insertNew(chunk));
+            for (PendingRow pending : chunk) {
+                if (existing.contains(pending.client().getOib())) {
+                    pending.result().setResult(Outcome.DUPLICATE);
+                    pending.result().setMessage("Client already exists");
+                } else {
+                    pending.result().setResult(Outcome.CREATED);
+                    lookupCache.evictClient(pending.client().getOib());
+                }
+            }
+        } catch (DataAccessException e) {
+            // Typically a client inserted concurrently since the check; retry row by row to find it
+            log.warn("Chunk insert failed, retrying {} rows one by one: {}", chunk.size(), e.getMessage());
+            for (PendingRow pending : chunk) {
+                importSingle(pending);
+            }
+        }
+    }
+
+    private void importSingle(PendingRow pending) {
+        try {
+            Set<String> existing = transactionTemplate.execute(status -> insertNew(List.of(pending)));
+            if (existing.isEmpty()) {
+                pending.result().setResult(Outcome.CREATED);
+                lookupCache.evictClient(pending.client().getOib());
+            } else {
+                pending.result().setResult(Outcome.DUPLICATE);
+                pending.result().setMessage("Client already exists");
+            }
+        } catch (DataIntegrityViolationException e) {
+            pending.result().setResult(Outcome.DUPLICATE);
+            pending.result().setMessage("Client already exists");
+        } catch (DataAccessException e) {
+            pending.result().setResult(Outcome.FAILED);
+            pending.result().setMessage(e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // Returns the OIBs that already existed and were skipped
+    private Set<String> insertNew(List<PendingRow> rows) {
+        List<String> oibs = rows.stream().map(pending -> pending.client().getOib()).toList();
+        Set<String> existing = new HashSet<>(lookupIndex.isReady()
+                ? lookupIndex.existingClientOibs(oibs)
+                : clientRepository.findExistingOibs(oibs));
+        List<String> mayHaveCard = new ArrayList<>();
+        List<ChangeEvent> events = new ArrayList<>();
+        for (PendingRow pending : rows) {
+            if (!existing.contains(pending.client().getOib())) {
+                Client client = ClientMapper.dtoToClient(pending.client());
+                entityManager.persist(client);
+                if (!lookupIndex.isReady() || lookupIndex.cardByOib(client.getOib()) != null) {
+                    mayHaveCard.add(client.getOib());
+                }
+                lookupIndex.clientSaved(client.getOib(), client.getId(), client.getStatus());
+                clientSearchIndex.clientAdded(client.getId(), client.getFirstName(), client.getLastName());
+                statusAggregates.clientAdded(client.getStatus());
+                events.add(ChangeEvent.clientSaved(client.getOib(), client.getFirstName(), client.getLastName(), client.getStatus()));
+            }
+        }
+        // One change stream message per chunk, delivered once the chunk commits and dropped with
+        // it on rollback
+        eventPublisher.publishEvent(new ChangeEventBatch(events));
+        // Sends the batched inserts and drops the entities so the session does not grow per chunk.
+        // Flushed through the repository so a unique key clash arrives translated, as the
+        // DataIntegrityViolationException the row-by-row fallback expects
+        clientRepository.flush();
+        entityManager.clear();
+        // Cards requested for these OIBs before their clients existed; one statement per chunk
+        if (!mayHaveCard.isEmpty()) {
+            cardRepository.linkToClients(mayHaveCard);
+        }
+        return existing;
+    }
+
+    private String validate(ClientDTO client) {
+        Set<ConstraintViolation<ClientDTO>> violations = validator.validate(client);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static void summarize(ClientImportReport report) {
+        report.setTotal(report.getRows().size());
+        for (ClientImportResult result : report.getRows()) {
+            switch (result.getResult()) {
+                case CREATED -> report.setCreated(report.getCreated() + 1);
+                case DUPLICATE -> report.setDuplicates(report.getDuplicates() + 1);
+                case INVALID -> report.setInvalid(report.getInvalid() + 1);
+                case FAILED -> report.setFailed(report.getFailed() + 1);
+            }
+        }
+    }
+
+    private record PendingRow(ClientDTO client, ClientImportResult result) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.RBA_assignment.RBA_assignment.utils.NamePrefixIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+// In-memory prefix index over client first and last names for the client search, at 32 bytes per
+// client. Built by one streaming scan before the app takes traffic and kept current by the
+// service write paths after commit, so with several instances writing it misses clients created
+// elsewhere; names are checked again on the loaded rows, so it never returns a wrong match
+@Slf4j
+@Component
+public class ClientSearchIndex extends InMemoryView {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    // Inserts since the last merge; bounds the copy per insert and the merge frequency
+    private static final int DELTA_LIMIT = 8192;
+
+    private final ClientRepository clientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private final NamePrefixIndex names = new NamePrefixIndex(DELTA_LIMIT);
+    // Searches walk arrays a merge replaces, so they take the read lock rather than reading
+    // optimistically
+    private final StampedLock lock = new StampedLock();
+
+    public ClientSearchIndex(
+            ClientRepository clientRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${client-search.index-enabled}") boolean enabled) {
+        this.clientRepository = clientRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+    }
+
+    public static int limit(Integer requested) {
+        if (requested == null || requested < 1) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(requested, MAX_LIMIT);
+    }
+
+    public long[] search(String prefix, int limit) {
+        long stamp = lock.readLock();
+        try {
+            return names.search(prefix, limit);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void clientAdded(Long id, String firstName, String lastName) {
+        if (isReady()) {
+            AfterCommit.run(() -> write(() -> names.add(id, firstName, lastName)));
+        }
+    }
+
+    public void clientRenamed(Long id, String oldFirstName, String oldLastName, String firstName, String lastName) {
+        if (isReady()) {
+            AfterCommit.run(() -> write(() -> {
+                names.remove(id, oldFirstName, oldLastName);
+                names.add(id, firstName, lastName);
+            }));
+        }
+    }
+
+    public void clientRemoved(Long id, String firstName, String lastName) {
+        if (isReady()) {
+            AfterCommit.run(() -> write(() -> names.remove(id, firstName, lastName)));
+        }
+    }
+
+    @Override
+    protected boolean load() {
+        if (!enabled) {
+            return false;
+        }
+        long started = System.nanoTime();
+        write(() -> {
+            names.clear();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ClientRepository.NameRow> rows = clientRepository.streamNameRows()) {
+                    rows.forEach(row -> names.load(row.getId(), row.getFirstName(), row.getLastName()));
+                }
+            });
+            names.sort();
+        });
+        log.info("Client search index built in {} ms: {} names, {} KiB",
+                (System.nanoTime() - started) / 1_000_000, names.size(), names.heapBytes() / 1024);
+        return true;
+    }
+
+    private void write(Runnable change) {
+        long stamp = lock.writeLock();
+        try {
+            change.run();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.RBA_assignment.RBA_assignment.service;
 
 import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.dto.ClientWithCardDTO;
+import com.RBA_assignment.RBA_assignment.dto.CursorPage;
+import com.RBA_assignment.RBA_assignment.model.Status;
 
 import java.util.List;
 
 public interface ClientService {
     ClientDTO createClient(ClientDTO clientDTO);
     ClientDTO getClientByOib(String oib);
+    String getClientVersionTag(String oib);
     List<ClientDTO> getAllClients();
+    CursorPage<ClientDTO> getClientsPage(String cursor, Integer size, Status status, String lastNamePrefix);
+    List<ClientDTO> searchClients(String query, Integer limit);
+    ClientWithCardDTO getClientWithCard(String oib);
+    CursorPage<ClientWithCardDTO> getClientsWithCardPage(String cursor, Integer size, Status status, String lastNamePrefix);
     ClientDTO updateClient(ClientDTO clientDTO);
     ClientDTO deleteClient(String oib);
-    void eventChangeClientStatus(String oib, String status);
 }
@@ -1,46 +1,100 @@
 package com.RBA_assignment.RBA_assignment.service;
 
+import com.RBA_assignment.RBA_assignment.dto.ChangeEvent;
 import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.dto.ClientWithCardDTO;
+import com.RBA_assignment.RBA_assignment.dto.CursorPage;
+import com.RBA_assignment.RBA_assignment.handlers.InvalidRequestParameterException;
 import com.RBA_assignment.RBA_assignment.mapper.ClientMapper;
 import com.RBA_assignment.RBA_assignment.model.Client;
 import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
 import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.RBA_assignment.RBA_assignment.utils.KeysetCursor;
+import com.RBA_assignment.RBA_assignment.utils.NamePrefixIndex;
 import jakarta.persistence.EntityExistsException;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.FetchNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+// Every public method is timed, tagged with its name
 @Slf4j
 @Service
+@Timed(value = "client.service", histogram = true)
 @RequiredArgsConstructor
 public class ClientServiceImpl implements ClientService {
     private final ClientRepository clientRepository;
-    private final CardRequestService cardRequestService;
+    private final CardRepository cardRepository;
+    private final OutboxService outboxService;
+    private final LookupCache lookupCache;
+    private final LookupIndex lookupIndex;
+    private final ClientSearchIndex clientSearchIndex;
+    private final StatusAggregates statusAggregates;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Transactional
     public ClientDTO createClient(ClientDTO clientDTO) {
-        if (clientRepository.findByOib(clientDTO.getOib()).isPresent()) {
+        boolean exists = lookupIndex.isReady()
+                ? lookupIndex.clientExists(clientDTO.getOib())
+                : clientRepository.findByOib(clientDTO.getOib()).isPresent();
+        if (exists) {
             throw new EntityExistsException("Client with OIB " + clientDTO.getOib() + " already exists");
         }
-        return ClientMapper.clientToDto(clientRepository.save(ClientMapper.dtoToClient(clientDTO)));
+        Client saved = clientRepository.save(ClientMapper.dtoToClient(clientDTO));
+        // A card requested for this OIB before the client existed now gets its client id
+        if (!lookupIndex.isReady() || lookupIndex.cardByOib(saved.getOib()) != null) {
+            cardRepository.linkToClients(List.of(saved.getOib()));
+        }
+        ClientDTO created = ClientMapper.clientToDto(saved);
+        lookupCache.evictClient(created.getOib());
+        lookupIndex.clientSaved(saved.getOib(), saved.getId(), saved.getStatus());
+        clientSearchIndex.clientAdded(saved.getId(), saved.getFirstName(), saved.getLastName());
+        statusAggregates.clientAdded(saved.getStatus());
+        eventPublisher.publishEvent(ChangeEvent.clientSaved(created.getOib(), created.getFirstName(), created.getLastName(), created.getStatus()));
+        // Committed together with the client, so a new client always gets its card request
+        outboxService.enqueueCardRequest(created);
+        return created;
     }
 
     @Override
     public ClientDTO getClientByOib(String oib) {
-        return clientRepository.findByOib(oib)
-                .map(client -> {
-                    ClientDTO dto = ClientMapper.clientToDto(client);
-                    cardRequestService.requestCardForClient(dto);
-                    log.info("Client with OIB {} found and card request initiated", oib);
-                    return dto;
-                })
-                .orElseGet(() -> {
-                    log.warn("Client with OIB {} not found", oib);
-                    return null;
-                });
+        // Unknown OIBs are answered from memory; the index holds no names, so hits still load
+        if (lookupIndex.isReady() && !lookupIndex.clientExists(oib)) {
+            log.warn("Client with OIB {} not found", oib);
+            return null;
+        }
+        ClientDTO dto = lookupCache.client(oib, () -> clientRepository.findByOib(oib)
+                .map(ClientMapper::clientToDto)
+                .orElse(null));
+        if (dto == null) {
+            log.warn("Client with OIB {} not found", oib);
+            return null;
+        }
+        // Lookups only read: new clients get their card request when created, clients from
+        // before that through the card issuance job
+        log.info("Client with OIB {} found", oib);
+        return dto;
+    }
+
+    // Null when there is no such client
+    @Override
+    public String getClientVersionTag(String oib) {
+        if (lookupIndex.isReady() && !lookupIndex.clientExists(oib)) {
+            return null;
+        }
+        return clientRepository.findVersionTagByOib(oib).orElse(null);
     }
 
     @Override
@@ -52,14 +106,95 @@ public class ClientServiceImpl implements ClientService {
     }
 
     @Override
+    public CursorPage<ClientDTO> getClientsPage(String cursor, Integer size, Status status, String lastNamePrefix) {
+        int pageSize = KeysetCursor.pageSize(size);
+        // One extra row tells us whether another page exists without a count query
+        List<Client> rows = clientRepository.findPageAfter(
+                KeysetCursor.decode(cursor),
+                status,
+                KeysetCursor.likePrefix(lastNamePrefix),
+                Limit.of(pageSize + 1)
+        );
+        boolean hasMore = rows.size() > pageSize;
+        List<Client> page = hasMore ? rows.subList(0, pageSize) : rows;
+        return new CursorPage<>(
+                page.stream().map(ClientMapper::clientToDto).toList(),
+                hasMore ? KeysetCursor.encode(page.getLast().getId()) : null
+        );
+    }
+
+    // Clients whose first or last name starts with the query, by the matching name in alphabetical
+    // order, last names ahead of first names
+    @Override
+    public List<ClientDTO> searchClients(String query, Integer limit) {
+        String prefix = NamePrefixIndex.normalize(query);
+        if (prefix.isEmpty()) {
+            throw new InvalidRequestParameterException("Search query must contain letters");
+        }
+        int max = ClientSearchIndex.limit(limit);
+        if (!clientSearchIndex.isReady()) {
+            return clientRepository.findByNamePrefix(prefix + "%", Limit.of(max))
+                    .stream()
+                    .map(ClientMapper::clientToDto)
+                    .toList();
+        }
+        long[] ids = clientSearchIndex.search(prefix, max);
+        Map<Long, Client> clients = clientRepository.findAllById(Arrays.stream(ids).boxed().toList())
+                .stream()
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
+        // Rows deleted or renamed after the index answered drop out here, as do names that only
+        // share the indexed leading letters with a longer query
+        return Arrays.stream(ids)
+                .mapToObj(clients::get)
+                .filter(client -> client != null && matches(client, prefix))
+                .map(ClientMapper::clientToDto)
+                .toList();
+    }
+
+    // A plain read: unlike getClientByOib it queues no card request
+    @Override
+    public ClientWithCardDTO getClientWithCard(String oib) {
+        return clientRepository.findWithCardByOib(oib)
+                .orElseThrow(() -> {
+                    log.warn("Client with OIB {} not found", oib);
+                    return new FetchNotFoundException("Client with OIB " + oib + " not found", oib);
+                });
+    }
+
+    @Override
+    public CursorPage<ClientWithCardDTO> getClientsWithCardPage(String cursor, Integer size, Status status, String lastNamePrefix) {
+        int pageSize = KeysetCursor.pageSize(size);
+        List<ClientWithCardDTO> rows = clientRepository.findWithCardPageAfter(
+                KeysetCursor.decode(cursor),
+                status,
+                KeysetCursor.likePrefix(lastNamePrefix),
+                Limit.of(pageSize + 1)
+        );
+        boolean hasMore = rows.size() > pageSize;
+        List<ClientWithCardDTO> page = hasMore ? rows.subList(0, pageSize) : rows;
+        return new CursorPage<>(page, hasMore ? KeysetCursor.encode(page.getLast().getId()) : null);
+    }
+
+    @Override
+    @Transactional
     public ClientDTO updateClient(ClientDTO clientDTO) {
         return clientRepository.findByOib(clientDTO.getOib())
                 .map(existingClient -> {
+                    String oldFirstName = existingClient.getFirstName();
+                    String oldLastName = existingClient.getLastName();
+                    Status oldStatus = existingClient.getStatus();
                     existingClient.setFirstName(clientDTO.getFirstName());
                     existingClient.setLastName(clientDTO.getLastName());
                     existingClient.setStatus(clientDTO.getStatus());
                     existingClient.setOib(clientDTO.getOib());
-                    return ClientMapper.clientToDto(clientRepository.save(existingClient));
+                    Client saved = clientRepository.save(existingClient);
+                    ClientDTO updated = ClientMapper.clientToDto(saved);
+                    lookupCache.evictClient(updated.getOib());
+                    lookupIndex.clientSaved(saved.getOib(), saved.getId(), saved.getStatus());
+                    clientSearchIndex.clientRenamed(saved.getId(), oldFirstName, oldLastName, saved.getFirstName(), saved.getLastName());
+                    statusAggregates.clientStatusChanged(oldStatus, saved.getStatus());
+                    eventPublisher.publishEvent(ChangeEvent.clientSaved(updated.getOib(), updated.getFirstName(), updated.getLastName(), updated.getStatus()));
+                    return updated;
                 })
                 .orElseThrow(() -> {
                     log.error("Client with OIB {} not found for update", clientDTO.getOib());
@@ -68,10 +203,16 @@ public class ClientServiceImpl implements ClientService {
     }
 
     @Override
+    @Transactional
     public ClientDTO deleteClient(String oib) {
         return clientRepository.findByOib(oib)
                 .map(client -> {
                     clientRepository.delete(client);
+                    lookupCache.evictClient(oib);
+                    lookupIndex.clientRemoved(oib);
+                    clientSearchIndex.clientRemoved(client.getId(), client.getFirstName(), client.getLastName());
+                    statusAggregates.clientRemoved(client.getStatus());
+                    eventPublisher.publishEvent(ChangeEvent.clientDeleted(oib));
                     return ClientMapper.clientToDto(client);
                 })
                 .orElseThrow(() -> {
@@ -80,15 +221,8 @@ public class ClientServiceImpl implements ClientService {
                 });
     }
 
-    @Override
-    public void eventChangeClientStatus(String oib, String status) {
-        log.info("Changing client status for OIB: {} to status: {}", oib, status);
-        Client client = clientRepository.findByOib(oib)
-                .orElseThrow(() -> new FetchNotFoundException("Client not found for OIB: " + oib, oib));
-
-        Status newStatus = Status.valueOf(status.toUpperCase());
-        client.setStatus(newStatus);
-        clientRepository.save(client);
-        log.info("Client status changed successfully: {}", status);
+    private static boolean matches(Client client, String prefix) {
+        return NamePrefixIndex.normalize(client.getLastName()).startsWith(prefix)
+                || NamePrefixIndex.normalize(client.getFirstName()).startsWith(prefix);
     }
 }
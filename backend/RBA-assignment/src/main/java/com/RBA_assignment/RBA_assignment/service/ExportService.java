@@ -0,0 +1,77 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.CardDTO;
+import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.mapper.CardMapper;
+import com.RBA_assignment.RBA_assignment.mapper.ClientMapper;
+import com.RBA_assignment.RBA_assignment.model.Card;
+import com.RBA_assignment.RBA_assignment.model.Client;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+    // Flush periodically so the client sees a steady flow of bytes without a flush per row
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private final ClientRepository clientRepository;
+    private final CardRepository cardRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long exportClients(OutputStream out) throws IOException {
+        log.info("Exporting all clients as NDJSON");
+        try (Stream<Client> clients = clientRepository.streamAll()) {
+            return writeNdjson(clients, ClientMapper::clientToDto, ClientDTO.class, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportCards(OutputStream out) throws IOException {
+        log.info("Exporting all cards as NDJSON");
+        try (Stream<Card> cards = cardRepository.streamAll()) {
+            return writeNdjson(cards, CardMapper::cardToDto, CardDTO.class, out);
+        }
+    }
+
+    private <E, D> long writeNdjson(Stream<E> rows, Function<E, D> mapper, Class<D> type, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are separated by newlines only, not Jackson's default root separator
+            generator.setRootValueSeparator(null);
+            Iterator<E> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                E entity = iterator.next();
+                writer.writeValue(generator, mapper.apply(entity));
+                generator.writeRaw('\n');
+                // Detach so the persistence context does not grow with the export
+                entityManager.detach(entity);
+                if (++count == 1 || count % FLUSH_EVERY_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        log.info("Exported {} {} rows", count, type.getSimpleName());
+        return count;
+    }
+}
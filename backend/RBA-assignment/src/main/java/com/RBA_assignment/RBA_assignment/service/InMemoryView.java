@@ -0,0 +1,40 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import org.springframework.context.SmartLifecycle;
+
+// An in-memory view loaded from the database at startup and kept current by the service write
+// paths through AfterCommit. Loads in the earliest lifecycle phase, before the web server,
+// listeners and schedulers start, so no write can slip between the load and the point where the
+// write paths take over
+public abstract class InMemoryView implements SmartLifecycle {
+    private volatile boolean ready;
+
+    // False while disabled or not loaded; callers then go to the database
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public final void start() {
+        // Volatile write: publishes what load built to the request threads
+        ready = load();
+    }
+
+    // Builds the view from the database; false leaves it unused
+    protected abstract boolean load();
+
+    @Override
+    public void stop() {
+        ready = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return ready;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,73 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.CardDTO;
+import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+// Read-through cache for single client and card lookups. Misses are cached too, so every
+// write path must evict the OIB it touches
+@Component
+public class LookupCache {
+    public static final String CLIENTS_BY_OIB = "clientsByOib";
+    public static final String CARDS_BY_OIB = "cardsByOib";
+    public static final String CARD_OIBS_BY_NUMBER = "cardOibsByNumber";
+
+    private final Cache clients;
+    private final Cache cards;
+    private final Cache cardOibs;
+
+    public LookupCache(CacheManager cacheManager) {
+        this.clients = Objects.requireNonNull(cacheManager.getCache(CLIENTS_BY_OIB));
+        this.cards = Objects.requireNonNull(cacheManager.getCache(CARDS_BY_OIB));
+        this.cardOibs = Objects.requireNonNull(cacheManager.getCache(CARD_OIBS_BY_NUMBER));
+    }
+
+    public ClientDTO client(String oib, Supplier<ClientDTO> loader) {
+        return clients.get(oib, loader::get);
+    }
+
+    public CardDTO cardByOib(String oib, Supplier<CardDTO> loader) {
+        return cards.get(oib, loader::get);
+    }
+
+    // Card numbers only map to an OIB here, the card itself lives in the OIB cache,
+    // so a status change only has to evict by OIB
+    public CardDTO cardByNumber(String cardNumber, Supplier<CardDTO> loader) {
+        String oib = cardOibs.get(cardNumber, () -> {
+            CardDTO card = loader.get();
+            return card == null ? null : card.getOib();
+        });
+        if (oib == null) {
+            return null;
+        }
+        CardDTO card = cardByOib(oib, loader);
+        if (card == null || !cardNumber.equals(card.getCardNumber())) {
+            cardOibs.evict(cardNumber);
+            return loader.get();
+        }
+        return card;
+    }
+
+    public void evictClient(String oib) {
+        evict(clients, oib);
+    }
+
+    public void evictCard(String oib, String cardNumber) {
+        evict(cards, oib);
+        if (cardNumber != null) {
+            evict(cardOibs, cardNumber);
+        }
+    }
+
+    // Evicts now and again after commit, so a read racing the transaction cannot
+    // leave the pre-commit value behind; outside one the second eviction is a no-op
+    private void evict(Cache cache, String key) {
+        cache.evict(key);
+        AfterCommit.run(() -> cache.evict(key));
+    }
+}
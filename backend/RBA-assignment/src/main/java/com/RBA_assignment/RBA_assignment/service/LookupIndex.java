@@ -0,0 +1,290 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.CardDTO;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.RBA_assignment.RBA_assignment.utils.LongLongHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+// Optional in-memory index of every client and card, keyed by OIB (11 digits) and card number
+// (16 digits) parsed into longs. It answers existence checks and card reads without touching
+// the database, including misses. Built by one streaming scan before the app takes traffic and
+// kept current by the service write paths after commit, so it is only correct while this
+// instance is the only writer to the database
+@Slf4j
+@Component
+public class LookupIndex extends InMemoryView {
+    private static final long MISSING = -1L;
+    private static final int STATUS_BITS = 4;
+    private static final long STATUS_MASK = (1L << STATUS_BITS) - 1;
+    private static final Status[] STATUSES = Status.values();
+
+    private final ClientRepository clientRepository;
+    private final CardRepository cardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    // Client OIB -> client id and status, card OIB -> card number and status, card number -> OIB
+    private final LongLongHashMap clients = new LongLongHashMap();
+    private final LongLongHashMap cardsByOib = new LongLongHashMap();
+    private final LongLongHashMap cardOibsByNumber = new LongLongHashMap();
+    // Reads are optimistic and only fall back to the read lock when a write got in between
+    private final StampedLock lock = new StampedLock();
+
+    public LookupIndex(
+            ClientRepository clientRepository,
+            CardRepository cardRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${lookup-index.enabled}") boolean enabled) {
+        this.clientRepository = clientRepository;
+        this.cardRepository = cardRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+    }
+
+    public boolean clientExists(String oib) {
+        long key = oibKey(oib);
+        return key != MISSING && read(clients, key) != MISSING;
+    }
+
+    // Null when no client has the OIB
+    public Long clientId(String oib) {
+        long key = oibKey(oib);
+        long client = key == MISSING ? MISSING : read(clients, key);
+        return client == MISSING ? null : client >>> STATUS_BITS;
+    }
+
+    public List<String> existingClientOibs(Collection<String> oibs) {
+        return oibs.stream().filter(this::clientExists).toList();
+    }
+
+    public boolean cardNumberExists(String cardNumber) {
+        long key = cardNumberKey(cardNumber);
+        return key != MISSING && read(cardOibsByNumber, key) != MISSING;
+    }
+
+    public CardDTO cardByOib(String oib) {
+        long key = oibKey(oib);
+        long card = key == MISSING ? MISSING : read(cardsByOib, key);
+        if (card == MISSING) {
+            return null;
+        }
+        return new CardDTO(formatCardNumber(card >>> STATUS_BITS), oib, statusName(card));
+    }
+
+    public CardDTO cardByNumber(String cardNumber) {
+        long key = cardNumberKey(cardNumber);
+        long oib = key == MISSING ? MISSING : read(cardOibsByNumber, key);
+        if (oib == MISSING) {
+            return null;
+        }
+        long card = read(cardsByOib, oib);
+        if (card == MISSING) {
+            return null;
+        }
+        return new CardDTO(cardNumber, formatOib(oib), statusName(card));
+    }
+
+    public void clientSaved(String oib, Long id, Status status) {
+        if (!isReady()) {
+            return;
+        }
+        long key = oibKey(oib);
+        if (key != MISSING) {
+            AfterCommit.run(() -> write(() -> clients.put(key, pack(id, status))));
+        }
+    }
+
+    public void clientRemoved(String oib) {
+        if (!isReady()) {
+            return;
+        }
+        long key = oibKey(oib);
+        if (key != MISSING) {
+            AfterCommit.run(() -> write(() -> clients.remove(key)));
+        }
+    }
+
+    public void cardSaved(String oib, String cardNumber, Status status) {
+        if (!isReady()) {
+            return;
+        }
+        long oibKey = oibKey(oib);
+        long numberKey = cardNumberKey(cardNumber);
+        if (oibKey != MISSING && numberKey != MISSING) {
+            AfterCommit.run(() -> write(() -> putCard(oibKey, numberKey, status)));
+        }
+    }
+
+    public void cardRemoved(String oib, String cardNumber) {
+        if (!isReady()) {
+            return;
+        }
+        long oibKey = oibKey(oib);
+        long numberKey = cardNumberKey(cardNumber);
+        AfterCommit.run(() -> write(() -> {
+            if (oibKey != MISSING) {
+                cardsByOib.remove(oibKey);
+            }
+            if (numberKey != MISSING) {
+                cardOibsByNumber.remove(numberKey);
+            }
+        }));
+    }
+
+    // Mirrors a status change applied to both the client and the card of an OIB
+    public void statusChanged(String oib, Status status) {
+        if (!isReady()) {
+            return;
+        }
+        long key = oibKey(oib);
+        if (key == MISSING) {
+            return;
+        }
+        AfterCommit.run(() -> write(() -> {
+            long client = clients.get(key, MISSING);
+            if (client != MISSING) {
+                clients.put(key, pack(client >>> STATUS_BITS, status));
+            }
+            long card = cardsByOib.get(key, MISSING);
+            if (card != MISSING) {
+                cardsByOib.put(key, pack(card >>> STATUS_BITS, status));
+            }
+        }));
+    }
+
+    @Override
+    protected boolean load() {
+        if (!enabled) {
+            return false;
+        }
+        long started = System.nanoTime();
+        clear();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ClientRepository.IndexRow> rows = clientRepository.streamIndexRows()) {
+                    rows.forEach(row -> clients.put(requireKey(oibKey(row.getOib()), row.getOib()),
+                            pack(row.getId(), row.getStatus())));
+                }
+                try (Stream<CardRepository.IndexRow> rows = cardRepository.streamIndexRows()) {
+                    rows.forEach(row -> putCard(
+                            requireKey(oibKey(row.getOib()), row.getOib()),
+                            requireKey(cardNumberKey(row.getCardNumber()), row.getCardNumber()),
+                            row.getStatus()));
+                }
+            });
+        } catch (IllegalStateException e) {
+            // A key the index cannot represent would turn lookups for it into false misses
+            log.warn("Lookup index disabled: {}", e.getMessage());
+            clear();
+            return false;
+        }
+        log.info("Lookup index built in {} ms: {} clients, {} cards, {} KiB",
+                (System.nanoTime() - started) / 1_000_000, clients.size(), cardsByOib.size(), heapBytes() / 1024);
+        return true;
+    }
+
+    public long heapBytes() {
+        return clients.tableBytes() + cardsByOib.tableBytes() + cardOibsByNumber.tableBytes();
+    }
+
+    private void clear() {
+        clients.clear();
+        cardsByOib.clear();
+        cardOibsByNumber.clear();
+    }
+
+    private void putCard(long oibKey, long numberKey, Status status) {
+        long previous = cardsByOib.get(oibKey, MISSING);
+        if (previous != MISSING && previous >>> STATUS_BITS != numberKey) {
+            cardOibsByNumber.remove(previous >>> STATUS_BITS);
+        }
+        cardsByOib.put(oibKey, pack(numberKey, status));
+        cardOibsByNumber.put(numberKey, oibKey);
+    }
+
+    private long read(LongLongHashMap map, long key) {
+        long stamp = lock.tryOptimisticRead();
+        long value = map.get(key, MISSING);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = map.get(key, MISSING);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    private void write(Runnable change) {
+        long stamp = lock.writeLock();
+        try {
+            change.run();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private static long pack(long value, Status status) {
+        return value << STATUS_BITS | (status == null ? 0 : status.ordinal() + 1);
+    }
+
+    private static String statusName(long packed) {
+        int status = (int) (packed & STATUS_MASK);
+        return status == 0 ? null : STATUSES[status - 1].name();
+    }
+
+    private static long requireKey(long key, String value) {
+        if (key == MISSING) {
+            throw new IllegalStateException("non-numeric key in database: " + value);
+        }
+        return key;
+    }
+
+    static long oibKey(String oib) {
+        return digits(oib, 11);
+    }
+
+    static long cardNumberKey(String cardNumber) {
+        return digits(cardNumber, 16);
+    }
+
+    private static String formatOib(long key) {
+        return zeroPadded(key, 11);
+    }
+
+    private static String formatCardNumber(long key) {
+        return zeroPadded(key, 16);
+    }
+
+    private static String zeroPadded(long key, int length) {
+        String digits = Long.toString(key);
+        return digits.length() == length ? digits : "0".repeat(length - digits.length()) + digits;
+    }
+
+    // The key, or MISSING unless the value is exactly that many ASCII digits
+    private static long digits(String value, int length) {
+        if (value == null || value.length() != length) {
+            return MISSING;
+        }
+        long key = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return MISSING;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+}
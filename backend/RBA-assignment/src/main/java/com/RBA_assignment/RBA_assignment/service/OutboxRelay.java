@@ -0,0 +1,237 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.kafka.CardStatusProducer;
+import com.RBA_assignment.RBA_assignment.model.OutboxEvent;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Drains the outbox in batches. A row is deleted only after Kafka acknowledged it or the card
+// service accepted it, so delivery is at-least-once; failures are retried with exponential backoff.
+// Events of one OIB and type are delivered one at a time in outbox order and stop at the first
+// failure, so a retried event never lands after a later one for the same OIB; different OIBs are
+// delivered concurrently
+@Slf4j
+@Component
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final CardStatusProducer cardStatusProducer;
+    private final CardRequestService cardRequestService;
+    private final CardRepository cardRepository;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor cardRequestWorkers;
+
+    @Value("${outbox.relay.batch-size}")
+    private int batchSize;
+
+    @Value("${outbox.relay.initial-backoff-ms}")
+    private long initialBackoffMs;
+
+    @Value("${outbox.relay.max-backoff-ms}")
+    private long maxBackoffMs;
+
+    @Value("${outbox.relay.send-timeout-ms}")
+    private long sendTimeoutMs;
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            CardStatusProducer cardStatusProducer,
+            CardRequestService cardRequestService,
+            CardRepository cardRepository,
+            ObjectMapper objectMapper,
+            Bulkhead cardServiceBulkhead,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.cardStatusProducer = cardStatusProducer;
+        this.cardRequestService = cardRequestService;
+        this.cardRepository = cardRepository;
+        this.objectMapper = objectMapper;
+        // One worker per call the bulkhead admits; more would only be turned away and retried
+        int workers = cardServiceBulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("outbox-card-request-", 1).factory()
+                : new CustomizableThreadFactory("outbox-card-request-");
+        this.cardRequestWorkers = new ThreadPoolExecutor(
+                workers,
+                workers,
+                30L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory
+        );
+        this.cardRequestWorkers.allowCoreThreadTimeOut(true);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms}")
+    public void relay() {
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findDue(Instant.now(), Limit.of(batchSize));
+            if (!batch.isEmpty()) {
+                relayBatch(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private void relayBatch(List<OutboxEvent> batch) {
+        Queue<Long> done = new ConcurrentLinkedQueue<>();
+        Queue<OutboxEvent> failed = new ConcurrentLinkedQueue<>();
+        Map<String, Deque<OutboxEvent>> statusesByOib = new LinkedHashMap<>();
+        Map<String, List<OutboxEvent>> cardRequestsByOib = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            switch (event.getType()) {
+                case CARD_STATUS -> statusesByOib.computeIfAbsent(event.getOib(), oib -> new ArrayDeque<>()).add(event);
+                case CARD_REQUEST -> cardRequestsByOib.computeIfAbsent(event.getOib(), oib -> new ArrayList<>()).add(event);
+            }
+        }
+
+        // Card service calls block, so they run on the workers while this thread sends to Kafka
+        List<Future<?>> cardRequests = new ArrayList<>(cardRequestsByOib.size());
+        for (List<OutboxEvent> events : cardRequestsByOib.values()) {
+            cardRequests.add(cardRequestWorkers.submit(() -> deliverCardRequests(events, done, failed)));
+        }
+        sendCardStatuses(statusesByOib, done, failed);
+        for (Future<?> cardRequest : cardRequests) {
+            try {
+                cardRequest.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Card request delivery failed unexpectedly", e.getCause());
+            }
+        }
+
+        if (!done.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(List.copyOf(done));
+        }
+        if (!failed.isEmpty()) {
+            outboxEventRepository.saveAll(List.copyOf(failed));
+            log.warn("{} outbox events failed and were rescheduled", failed.size());
+        }
+        log.debug("Relayed {} of {} outbox events", done.size(), batch.size());
+    }
+
+    // Sends in rounds: each round pipelines the oldest waiting event of every OIB so the producer
+    // can batch them, and awaits them together. The next status of an OIB is only sent once the
+    // previous one is acknowledged, so one that times out and is retried cannot overtake it
+    private void sendCardStatuses(Map<String, Deque<OutboxEvent>> statusesByOib, Queue<Long> done, Queue<OutboxEvent> failed) {
+        while (!statusesByOib.isEmpty()) {
+            Map<OutboxEvent, CompletableFuture<?>> round = new LinkedHashMap<>();
+            for (Deque<OutboxEvent> events : statusesByOib.values()) {
+                OutboxEvent event = events.peekFirst();
+                try {
+                    round.put(event, cardStatusProducer.sendCardStatus(read(event, CardStatusMessage.class)));
+                } catch (JsonProcessingException e) {
+                    // Can never be delivered, retrying would only block the OIB forever
+                    log.error("Dropping unreadable outbox event {}: {}", event.getId(), event.getPayload(), e);
+                    done.add(event.getId());
+                    events.removeFirst();
+                }
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+            round.forEach((event, future) -> {
+                try {
+                    future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    done.add(event.getId());
+                    statusesByOib.get(event.getOib()).removeFirst();
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    scheduleRetry(event, e);
+                    failed.add(event);
+                    // The OIB's later events stay in the outbox until this one is through
+                    statusesByOib.get(event.getOib()).clear();
+                }
+            });
+            statusesByOib.values().removeIf(Deque::isEmpty);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    private void deliverCardRequests(List<OutboxEvent> events, Queue<Long> done, Queue<OutboxEvent> failed) {
+        for (OutboxEvent event : events) {
+            try {
+                if (!deliverCardRequest(event)) {
+                    failed.add(event);
+                    return;
+                }
+            } catch (JsonProcessingException e) {
+                log.error("Dropping unreadable outbox event {}: {}", event.getId(), event.getPayload(), e);
+            }
+            done.add(event.getId());
+        }
+    }
+
+    private boolean deliverCardRequest(OutboxEvent event) throws JsonProcessingException {
+        ClientDTO client = read(event, ClientDTO.class);
+        if (cardRepository.existsByOib(client.getOib())) {
+            return true;
+        }
+        try {
+            cardRequestService.sendCardRequest(client);
+            return true;
+        } catch (HttpClientErrorException.Conflict e) {
+            log.debug("Card already exists for client with OIB {}", client.getOib());
+            return true;
+        } catch (Exception e) {
+            scheduleRetry(event, e);
+            return false;
+        }
+    }
+
+    private void scheduleRetry(OutboxEvent event, Exception cause) {
+        int attempts = event.getAttempts() + 1;
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 20));
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(Instant.now().plusMillis(backoff));
+        String message = String.valueOf(cause.getMessage());
+        event.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+        log.warn("Delivery of {} outbox event {} for OIB {} failed (attempt {}), retrying in {} ms: {}",
+                event.getType(), event.getId(), event.getOib(), attempts, backoff, message);
+    }
+
+    private <T> T read(OutboxEvent event, Class<T> type) throws JsonProcessingException {
+        return objectMapper.readValue(event.getPayload(), type);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        cardRequestWorkers.shutdown();
+        if (!cardRequestWorkers.awaitTermination(10, TimeUnit.SECONDS)) {
+            cardRequestWorkers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.model.OutboxEvent;
+import com.RBA_assignment.RBA_assignment.model.OutboxEventType;
+import com.RBA_assignment.RBA_assignment.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+// Records outgoing messages in the caller's transaction; OutboxRelay delivers them later
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public void enqueueCardRequest(ClientDTO client) {
+        enqueue(OutboxEventType.CARD_REQUEST, client.getOib(), client);
+    }
+
+    @Transactional
+    public void enqueueCardStatus(CardStatusMessage message) {
+        enqueue(OutboxEventType.CARD_STATUS, message.getOib(), message);
+    }
+
+    private void enqueue(OutboxEventType type, String oib, Object payload) {
+        Instant now = Instant.now();
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .type(type)
+                    .oib(oib)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(now)
+                    .nextAttemptAt(now)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + type + " payload for OIB " + oib, e);
+        }
+        log.debug("Queued {} outbox event for OIB {}", type, oib);
+    }
+}
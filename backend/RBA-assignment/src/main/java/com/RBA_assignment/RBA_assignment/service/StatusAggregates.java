@@ -0,0 +1,232 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.StatusAggregatesDTO;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.RBA_assignment.RBA_assignment.repository.StatusChange;
+import com.RBA_assignment.RBA_assignment.repository.StatusCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Live client and card counts per status for the dashboard. Each count is a LongAdder, so
+// concurrent writers update separate cells instead of contending on one value, and a read sums
+// a handful of cells whatever the table size. Seeded by one GROUP BY per table before the app
+// takes traffic, moved by the service write paths after commit and reconciled against the
+// database on a schedule, which also corrects rows written by other instances or by hand
+@Slf4j
+@Component
+public class StatusAggregates extends InMemoryView {
+    private static final Status[] STATUSES = Status.values();
+
+    private final ClientRepository clientRepository;
+    private final CardRepository cardRepository;
+
+    private final Counts clients = new Counts("client");
+    private final Counts cards = new Counts("card");
+    private volatile Instant reconciledAt;
+
+    public StatusAggregates(ClientRepository clientRepository, CardRepository cardRepository) {
+        this.clientRepository = clientRepository;
+        this.cardRepository = cardRepository;
+    }
+
+    public StatusAggregatesDTO snapshot() {
+        return new StatusAggregatesDTO(clients.snapshot(), cards.snapshot(), reconciledAt);
+    }
+
+    public void clientAdded(Status status) {
+        change(clients, counts -> counts.add(status, 1));
+    }
+
+    public void clientRemoved(Status status) {
+        change(clients, counts -> counts.add(status, -1));
+    }
+
+    public void clientStatusChanged(Status from, Status to) {
+        if (from != to) {
+            change(clients, counts -> counts.move(from, to, 1));
+        }
+    }
+
+    // The rows a status update changed, with the status they had before
+    public void clientStatusesChanged(List<StatusChange> changed, Status to) {
+        if (!changed.isEmpty()) {
+            change(clients, counts -> counts.move(changed, to));
+        }
+    }
+
+    public void cardAdded(Status status) {
+        change(cards, counts -> counts.add(status, 1));
+    }
+
+    public void cardRemoved(Status status) {
+        change(cards, counts -> counts.add(status, -1));
+    }
+
+    public void cardStatusesChanged(List<StatusChange> changed, Status to) {
+        if (!changed.isEmpty()) {
+            change(cards, counts -> counts.move(changed, to));
+        }
+    }
+
+    // A correction is only trusted when no counted write was in flight while the counts were
+    // read; otherwise a committed row could be counted by both the query and its pending update.
+    // The check and the correction run under the guard, so no update lands between them. Skipped
+    // rounds are retried on the next run
+    @Scheduled(fixedDelayString = "${status-aggregates.reconcile-interval-ms}",
+            initialDelayString = "${status-aggregates.reconcile-interval-ms}")
+    public void reconcile() {
+        if (!isReady()) {
+            return;
+        }
+        boolean clientsChecked = reconcile(clients, clientRepository::countByStatus);
+        boolean cardsChecked = reconcile(cards, cardRepository::countByStatus);
+        if (clientsChecked && cardsChecked) {
+            reconciledAt = Instant.now();
+        }
+    }
+
+    @Override
+    protected boolean load() {
+        long started = System.nanoTime();
+        clients.seed(clientRepository.countByStatus());
+        cards.seed(cardRepository.countByStatus());
+        reconciledAt = Instant.now();
+        log.info("Status aggregates seeded in {} ms: {} clients, {} cards",
+                (System.nanoTime() - started) / 1_000_000, clients.total(), cards.total());
+        return true;
+    }
+
+    private boolean reconcile(Counts counts, Supplier<List<StatusCount>> query) {
+        long applied = counts.applied.get();
+        if (counts.pending.get() > 0) {
+            log.debug("Skipping {} count reconciliation, writes in flight", counts.table);
+            return false;
+        }
+        List<StatusCount> rows = query.get();
+        long[] actual = new long[STATUSES.length + 1];
+        for (StatusCount row : rows) {
+            actual[slot(row.getStatus())] = row.getTotal();
+        }
+        counts.guard.writeLock().lock();
+        try {
+            if (counts.pending.get() > 0 || counts.applied.get() != applied) {
+                log.debug("Skipping {} count reconciliation, counts moved while reading", counts.table);
+                return false;
+            }
+            for (int slot = 0; slot < actual.length; slot++) {
+                long drift = actual[slot] - counts.bySlot[slot].sum();
+                if (drift != 0) {
+                    counts.bySlot[slot].add(drift);
+                    log.warn("Corrected {} count for status {} by {}", counts.table, slot == 0 ? "none" : STATUSES[slot - 1], drift);
+                }
+            }
+            return true;
+        } finally {
+            counts.guard.writeLock().unlock();
+        }
+    }
+
+    // Changes waiting on their transaction are pending, which holds off reconciliation. That only
+    // covers the row while it is uncommitted if the change is registered inside the transaction
+    // that writes it, so every counted write path runs in one
+    private void change(Counts counts, Consumer<Counts> change) {
+        if (!isReady()) {
+            return;
+        }
+        counts.pending.incrementAndGet();
+        AfterCommit.run(() -> counts.apply(change), counts.pending::decrementAndGet);
+    }
+
+    // Slot 0 counts rows without a status
+    private static int slot(Status status) {
+        return status == null ? 0 : status.ordinal() + 1;
+    }
+
+    private static final class Counts {
+        private final String table;
+        private final LongAdder[] bySlot = new LongAdder[STATUSES.length + 1];
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicLong applied = new AtomicLong();
+        // Shared by updates, which still run side by side, and held exclusively by a correction
+        private final ReadWriteLock guard = new ReentrantReadWriteLock();
+
+        private Counts(String table) {
+            this.table = table;
+            for (int slot = 0; slot < bySlot.length; slot++) {
+                bySlot[slot] = new LongAdder();
+            }
+        }
+
+        private void seed(List<StatusCount> rows) {
+            for (LongAdder count : bySlot) {
+                count.reset();
+            }
+            for (StatusCount row : rows) {
+                bySlot[slot(row.getStatus())].add(row.getTotal());
+            }
+        }
+
+        private void apply(Consumer<Counts> change) {
+            guard.readLock().lock();
+            try {
+                change.accept(this);
+                applied.incrementAndGet();
+            } finally {
+                guard.readLock().unlock();
+            }
+        }
+
+        private void add(Status status, long delta) {
+            bySlot[slot(status)].add(delta);
+        }
+
+        private void move(Status from, Status to, long rows) {
+            bySlot[slot(from)].add(-rows);
+            bySlot[slot(to)].add(rows);
+        }
+
+        private void move(List<StatusChange> changed, Status to) {
+            for (StatusChange row : changed) {
+                move(row.getStatus(), to, 1);
+            }
+        }
+
+        private long total() {
+            long total = 0;
+            for (LongAdder count : bySlot) {
+                total += count.sum();
+            }
+            return total;
+        }
+
+        private StatusAggregatesDTO.StatusCounts snapshot() {
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            long total = 0;
+            for (int slot = 0; slot < bySlot.length; slot++) {
+                long count = bySlot[slot].sum();
+                total += count;
+                if (slot > 0) {
+                    byStatus.put(STATUSES[slot - 1].toJson(), count);
+                } else if (count != 0) {
+                    byStatus.put("none", count);
+                }
+            }
+            return new StatusAggregatesDTO.StatusCounts(total, byStatus);
+        }
+    }
+}
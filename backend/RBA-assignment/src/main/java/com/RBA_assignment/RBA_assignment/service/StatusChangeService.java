@@ -0,0 +1,99 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.ChangeEvent;
+import com.RBA_assignment.RBA_assignment.dto.ChangeEventBatch;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.RBA_assignment.RBA_assignment.repository.StatusChange;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatusChangeService {
+    // Keeps IN lists at a size every driver and planner handles comfortably
+    private static final int MAX_OIBS_PER_STATEMENT = 1000;
+
+    private final CardRepository cardRepository;
+    private final ClientRepository clientRepository;
+    private final LookupCache lookupCache;
+    private final LookupIndex lookupIndex;
+    private final StatusAggregates statusAggregates;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Applies one status event to the card and the client of an OIB in one transaction, with one
+    // targeted UPDATE per table and no reads; each update reports the status it replaced for the
+    // aggregates. Returns whether either row actually changed
+    @Transactional
+    public boolean apply(String oib, Status status) {
+        List<StatusChange> cardsChanged = cardRepository.updateStatus(oib, status.name());
+        List<StatusChange> clientsChanged = clientRepository.updateStatus(oib, status.name());
+        if (cardsChanged.isEmpty() && clientsChanged.isEmpty()) {
+            log.debug("Status of OIB {} already {}, nothing to change", oib, status);
+            return false;
+        }
+        lookupCache.evictCard(oib, null);
+        lookupCache.evictClient(oib);
+        lookupIndex.statusChanged(oib, status);
+        statusAggregates.cardStatusesChanged(cardsChanged, status);
+        statusAggregates.clientStatusesChanged(clientsChanged, status);
+        eventPublisher.publishEvent(ChangeEvent.statusChanged(oib, status));
+        log.info("Status of OIB {} changed to {}: {} card and {} client updated", oib, status, cardsChanged.size(), clientsChanged.size());
+        return true;
+    }
+
+    // Applies the latest status per OIB to cards and clients in one transaction, issuing one
+    // UPDATE per distinct target status and table. Only OIBs whose card or client actually moved,
+    // as reported by the updates, are evicted, indexed and published
+    @Transactional
+    public void applyLatest(Map<String, Status> latestByOib) {
+        if (latestByOib.isEmpty()) {
+            return;
+        }
+        Map<Status, List<String>> oibsByStatus = new EnumMap<>(Status.class);
+        latestByOib.forEach((oib, status) ->
+                oibsByStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(oib));
+
+        Map<String, Status> changed = new LinkedHashMap<>();
+        long cardsUpdated = 0;
+        long clientsUpdated = 0;
+        for (Map.Entry<Status, List<String>> entry : oibsByStatus.entrySet()) {
+            Status status = entry.getKey();
+            List<String> oibs = entry.getValue();
+            for (int from = 0; from < oibs.size(); from += MAX_OIBS_PER_STATEMENT) {
+                List<String> chunk = oibs.subList(from, Math.min(from + MAX_OIBS_PER_STATEMENT, oibs.size()));
+                List<StatusChange> cardsChanged = cardRepository.updateStatusForOibs(status.name(), chunk);
+                List<StatusChange> clientsChanged = clientRepository.updateStatusForOibs(status.name(), chunk);
+                statusAggregates.cardStatusesChanged(cardsChanged, status);
+                statusAggregates.clientStatusesChanged(clientsChanged, status);
+                cardsChanged.forEach(row -> changed.put(row.getOib(), status));
+                clientsChanged.forEach(row -> changed.put(row.getOib(), status));
+                cardsUpdated += cardsChanged.size();
+                clientsUpdated += clientsChanged.size();
+            }
+        }
+        List<ChangeEvent> events = new ArrayList<>(changed.size());
+        changed.forEach((oib, status) -> {
+            lookupCache.evictCard(oib, null);
+            lookupCache.evictClient(oib);
+            lookupIndex.statusChanged(oib, status);
+            events.add(ChangeEvent.statusChanged(oib, status));
+        });
+        if (!events.isEmpty()) {
+            eventPublisher.publishEvent(new ChangeEventBatch(events));
+        }
+        log.info("Applied {} status changes: {} OIBs changed, {} cards and {} clients updated",
+                latestByOib.size(), changed.size(), cardsUpdated, clientsUpdated);
+    }
+}
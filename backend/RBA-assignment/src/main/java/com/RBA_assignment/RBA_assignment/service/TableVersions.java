@@ -0,0 +1,44 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.ChangeEvent;
+import com.RBA_assignment.RBA_assignment.dto.ChangeEventBatch;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Change counters for the client and card tables, bumped after each committed write, so list
+// ETags cost no query. The start time keeps tags from before a restart from matching again.
+// Like the lookup index, it only sees writes made through this instance
+@Service
+public class TableVersions {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong clients = new AtomicLong();
+    private final AtomicLong cards = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void changed(ChangeEvent event) {
+        switch (event.getType()) {
+            case CLIENT_SAVED, CLIENT_DELETED -> clients.incrementAndGet();
+            case CARD_SAVED, CARD_DELETED -> cards.incrementAndGet();
+            case STATUS_CHANGED -> {
+                clients.incrementAndGet();
+                cards.incrementAndGet();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void changed(ChangeEventBatch batch) {
+        batch.getEvents().forEach(this::changed);
+    }
+
+    // Read before loading the list, so a tag never claims a newer list than the one it is sent with
+    public String clients() {
+        return epoch + "-" + clients.get();
+    }
+
+    public String cards() {
+        return epoch + "-" + cards.get();
+    }
+}
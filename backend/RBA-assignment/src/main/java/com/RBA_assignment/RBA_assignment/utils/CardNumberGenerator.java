@@ -1,20 +1,86 @@
 package com.RBA_assignment.RBA_assignment.utils;
 
-import java.security.SecureRandom;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
 public class CardNumberGenerator {
-    private static final SecureRandom random = new SecureRandom();
-
-    // Method to generate a random card number with 16 digits
-    // The first digit is between 1 and 9, and the rest are between 0 and 9
-    // This simulates a valid card number format
-    public static String generate() {
-        String firstDigit = String.valueOf(random.nextInt(9) + 1);
-        String otherDigits = IntStream.range(1, 16)
-                .mapToObj(i -> String.valueOf(random.nextInt(10)))
-                .collect(Collectors.joining());
-        return firstDigit + otherDigits;
+    public static final int LENGTH = 16;
+
+    // Sequence values map onto the 14 digits between the issuer digit and the check digit
+    public static final long SEQUENCE_SPACE = 100_000_000_000_000L;
+
+    private static final int HALF_SPACE = 10_000_000;
+    private static final int[] ROUND_KEYS = {0x3C6EF372, 0x5BE0CD19, 0x1F83D9AB, 0x6A09E667};
+
+    // Builds a Luhn-valid 16 digit card number from a unique sequence value.
+    // The sequence is run through a fixed permutation of [0, 10^14), so distinct
+    // sequence values always give distinct numbers but consecutive ones look random
+    public static String generate(int issuerDigit, long sequence) {
+        if (issuerDigit < 1 || issuerDigit > 9) {
+            throw new IllegalArgumentException("Issuer digit must be between 1 and 9: " + issuerDigit);
+        }
+        if (sequence < 0 || sequence >= SEQUENCE_SPACE) {
+            throw new IllegalArgumentException("Card number sequence out of range: " + sequence);
+        }
+        char[] digits = new char[LENGTH];
+        digits[0] = (char) ('0' + issuerDigit);
+        long body = permute(sequence);
+        for (int i = LENGTH - 2; i >= 1; i--) {
+            digits[i] = (char) ('0' + body % 10);
+            body /= 10;
+        }
+        digits[LENGTH - 1] = (char) ('0' + luhnCheckDigit(digits, LENGTH - 1));
+        return new String(digits);
+    }
+
+    public static boolean isLuhnValid(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() != LENGTH) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = LENGTH - 1, position = 0; i >= 0; i--, position++) {
+            int digit = cardNumber.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            if ((position & 1) == 1) {
+                digit *= 2;
+                if (digit > 9) digit -= 9;
+            }
+            sum += digit;
+        }
+        return sum % 10 == 0;
+    }
+
+    // Balanced Feistel network over two base-10^7 halves; every round is invertible,
+    // so the whole function is a bijection on [0, 10^14)
+    static long permute(long value) {
+        int left = (int) (value / HALF_SPACE);
+        int right = (int) (value % HALF_SPACE);
+        for (int key : ROUND_KEYS) {
+            int next = (left + round(right, key)) % HALF_SPACE;
+            left = right;
+            right = next;
+        }
+        return (long) left * HALF_SPACE + right;
+    }
+
+    private static int round(int half, int key) {
+        int h = (half ^ key) * 0x9E3779B1;
+        h ^= h >>> 15;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return (h & 0x7FFFFFFF) % HALF_SPACE;
+    }
+
+    // Check digit for the first payloadLength digits
+    private static int luhnCheckDigit(char[] digits, int payloadLength) {
+        int sum = 0;
+        for (int i = payloadLength - 1, position = 0; i >= 0; i--, position++) {
+            int digit = digits[i] - '0';
+            if ((position & 1) == 0) {
+                digit *= 2;
+                if (digit > 9) digit -= 9;
+            }
+            sum += digit;
+        }
+        return (10 - sum % 10) % 10;
     }
 }
@@ -0,0 +1,56 @@
+package com.RBA_assignment.RBA_assignment.utils;
+
+import com.RBA_assignment.RBA_assignment.handlers.InvalidRequestParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class KeysetCursor {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // Cursor is the id of the last row on the previous page, kept opaque so the
+    // keyset column can change without breaking clients
+    public static String encode(Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        return ENCODER.encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            long lastId = Long.parseLong(new String(DECODER.decode(cursor), StandardCharsets.US_ASCII));
+            if (lastId >= 0) {
+                return lastId;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not Base64 or not a number
+        }
+        throw new InvalidRequestParameterException("Invalid cursor: " + cursor);
+    }
+
+    public static int pageSize(Integer requested) {
+        if (requested == null || requested < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(requested, MAX_PAGE_SIZE);
+    }
+
+    // Escapes LIKE wildcards so user input is matched literally as a prefix
+    public static String likePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        return prefix.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
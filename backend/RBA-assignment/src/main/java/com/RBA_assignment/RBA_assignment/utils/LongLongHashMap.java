@@ -0,0 +1,203 @@
+package com.RBA_assignment.RBA_assignment.utils;
+
+import java.util.Arrays;
+
+// Open-addressing long to long map with linear probing. Keys and values sit next to each other
+// in one array, so a lookup touches a single cache line and an entry costs 16 bytes per slot
+// with no per-entry objects. Not thread-safe. Readers that race a writer (optimistic reads)
+// may see garbage but never fail, because every probe is bounded by the array they loaded
+public final class LongLongHashMap {
+    private static final long FREE = 0L;
+    private static final double LOAD_FACTOR = 0.75;
+    private static final int MIN_CAPACITY = 16;
+
+    // key at 2 * slot, value at 2 * slot + 1; a free slot holds key 0
+    private long[] table;
+    private int size;
+    private int resizeAt;
+    // 0 marks free slots, so that key is kept aside
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public long get(long key, long missing) {
+        if (key == FREE) {
+            return hasZeroKey ? zeroValue : missing;
+        }
+        long[] t = table;
+        int mask = (t.length >> 1) - 1;
+        int slot = slot(key, mask);
+        for (int probes = 0; probes <= mask; probes++) {
+            long k = t[slot << 1];
+            if (k == key) {
+                return t[(slot << 1) + 1];
+            }
+            if (k == FREE) {
+                return missing;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missing;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == FREE) {
+            return hasZeroKey;
+        }
+        long[] t = table;
+        int mask = (t.length >> 1) - 1;
+        int slot = slot(key, mask);
+        for (int probes = 0; probes <= mask; probes++) {
+            long k = t[slot << 1];
+            if (k == key) {
+                return true;
+            }
+            if (k == FREE) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public void put(long key, long value) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int mask = (table.length >> 1) - 1;
+        int slot = slot(key, mask);
+        while (true) {
+            long k = table[slot << 1];
+            if (k == key) {
+                table[(slot << 1) + 1] = value;
+                return;
+            }
+            if (k == FREE) {
+                table[(slot << 1) + 1] = value;
+                table[slot << 1] = key;
+                if (++size > resizeAt) {
+                    rehash(table.length); // twice the slot count, so this doubles the capacity
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public boolean remove(long key) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            size--;
+            return true;
+        }
+        int mask = (table.length >> 1) - 1;
+        int slot = slot(key, mask);
+        while (true) {
+            long k = table[slot << 1];
+            if (k == FREE) {
+                return false;
+            }
+            if (k == key) {
+                shiftBack(slot, mask);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(table, FREE);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    // Heap held by the table itself, the map header is negligible next to it
+    public long tableBytes() {
+        return 16L + 8L * table.length;
+    }
+
+    // Backward shift deletion: pulls later entries of the probe chain into the hole, so no
+    // tombstones pile up under churn and lookups stay as short as after a fresh build
+    private void shiftBack(int hole, int mask) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long k = table[slot << 1];
+            if (k == FREE) {
+                break;
+            }
+            int home = slot(k, mask);
+            // Move the entry unless its home lies cyclically in (hole, slot]
+            boolean stays = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+            if (!stays) {
+                table[(hole << 1) + 1] = table[(slot << 1) + 1];
+                table[hole << 1] = k;
+                hole = slot;
+            }
+        }
+        table[hole << 1] = FREE;
+        table[(hole << 1) + 1] = 0L;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] old = table;
+        allocate(newCapacity);
+        int mask = (table.length >> 1) - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            long k = old[i];
+            if (k != FREE) {
+                int slot = slot(k, mask);
+                while (table[slot << 1] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                table[(slot << 1) + 1] = old[i + 1];
+                table[slot << 1] = k;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity << 1];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+        if (needed > 1 << 29) {
+            throw new IllegalArgumentException("Too many entries: " + expectedSize);
+        }
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    // Sequential keys such as OIBs would cluster badly on the raw low bits, the murmur3
+    // finalizer spreads them over the whole table
+    private static int slot(long key, int mask) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
@@ -0,0 +1,324 @@
+package com.RBA_assignment.RBA_assignment.utils;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+// Prefix index over client first and last names. Each name becomes one entry of two longs: the
+// name packed into a sortable key and the client id. Keys hold the first 12 letters of the
+// normalized name at 5 bits each, high letters first and padded with zeros, so sorting the keys
+// sorts the names alphabetically with a name ahead of its longer extensions, and every name with
+// a given prefix sits in one contiguous key range. The lowest bit tells last names (0) from
+// first names (1).
+// Entries live in a large sorted base array and a small sorted delta that takes the inserts.
+// Removed base entries are only marked, by flipping the bits of their id, until the delta fills
+// up and both are merged into a new base. Not thread-safe
+public final class NamePrefixIndex {
+    public static final int KEY_LETTERS = 12;
+
+    private static final int LETTER_BITS = 5;
+    private static final int FIELD_BITS = 3;
+    private static final long FIRST_NAME = 1L;
+    private static final int MIN_CAPACITY = 16;
+
+    private final int deltaLimit;
+
+    private long[] baseKeys = new long[MIN_CAPACITY];
+    private long[] baseIds = new long[MIN_CAPACITY];
+    private int baseSize;
+    private int baseRemoved;
+    private long[] deltaKeys;
+    private long[] deltaIds;
+    private int deltaSize;
+
+    public NamePrefixIndex(int deltaLimit) {
+        this.deltaLimit = deltaLimit;
+        this.deltaKeys = new long[deltaLimit];
+        this.deltaIds = new long[deltaLimit];
+    }
+
+    // Entries added here are unsorted until sort() runs; used to fill the index in one pass
+    public void load(long id, String firstName, String lastName) {
+        append(key(lastName, 0), id);
+        append(key(firstName, FIRST_NAME), id);
+    }
+
+    public void sort() {
+        sort(baseKeys, baseIds, 0, baseSize - 1);
+    }
+
+    public void add(long id, String firstName, String lastName) {
+        insert(key(lastName, 0), id);
+        insert(key(firstName, FIRST_NAME), id);
+    }
+
+    // Names as they were added; entries not present are ignored
+    public void remove(long id, String firstName, String lastName) {
+        delete(key(lastName, 0), id);
+        delete(key(firstName, FIRST_NAME), id);
+    }
+
+    // Ids of clients with a first or last name starting with the prefix, by the matching name in
+    // alphabetical order: an exact match leads its own extensions, but a shorter name is not moved
+    // ahead of one that sorts before it ("horvatic" comes before "horz"). Last names come ahead of
+    // first names for the same name, then by id. A client matching on both names is listed once.
+    // Prefixes longer than KEY_LETTERS are matched on their first KEY_LETTERS letters, so callers
+    // holding the names should check the rest
+    public long[] search(String prefix, int limit) {
+        String letters = normalize(prefix);
+        if (letters.isEmpty() || limit < 1) {
+            return new long[0];
+        }
+        int length = Math.min(letters.length(), KEY_LETTERS);
+        long from = pack(letters);
+        long to = from | ((1L << (FIELD_BITS + LETTER_BITS * (KEY_LETTERS - length))) - 1);
+
+        long[] found = new long[limit];
+        int count = 0;
+        int b = lowerBound(baseKeys, baseSize, from);
+        int d = lowerBound(deltaKeys, deltaSize, from);
+        while (count < limit) {
+            long id;
+            if (b < baseSize && (d == deltaSize || compare(baseKeys[b], liveId(baseIds[b]), deltaKeys[d], deltaIds[d]) < 0)) {
+                if (baseKeys[b] > to) {
+                    break;
+                }
+                id = baseIds[b++];
+                if (id < 0) {
+                    continue;
+                }
+            } else if (d < deltaSize) {
+                if (deltaKeys[d] > to) {
+                    break;
+                }
+                id = deltaIds[d++];
+            } else {
+                break;
+            }
+            if (!contains(found, count, id)) {
+                found[count++] = id;
+            }
+        }
+        return count == limit ? found : Arrays.copyOf(found, count);
+    }
+
+    public int size() {
+        return baseSize - baseRemoved + deltaSize;
+    }
+
+    public long heapBytes() {
+        return (long) (baseKeys.length + baseIds.length + deltaKeys.length + deltaIds.length) * Long.BYTES;
+    }
+
+    public void clear() {
+        baseKeys = new long[MIN_CAPACITY];
+        baseIds = new long[MIN_CAPACITY];
+        baseSize = 0;
+        baseRemoved = 0;
+        deltaSize = 0;
+    }
+
+    // Lower case ASCII letters only: accents are stripped and anything else is dropped, so
+    // "Đurđević" and "durdevic" are the same name
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder letters = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = Character.toLowerCase(decomposed.charAt(i));
+            if (c == 'đ') {
+                c = 'd';
+            }
+            if (c >= 'a' && c <= 'z') {
+                letters.append(c);
+            }
+        }
+        return letters.toString();
+    }
+
+    private static long key(String name, long field) {
+        return pack(normalize(name)) | field;
+    }
+
+    private static long pack(String letters) {
+        long key = 0;
+        for (int i = 0; i < KEY_LETTERS; i++) {
+            key = key << LETTER_BITS | (i < letters.length() ? letters.charAt(i) - 'a' + 1 : 0);
+        }
+        return key << FIELD_BITS;
+    }
+
+    private void append(long key, long id) {
+        if (baseSize == baseKeys.length) {
+            baseKeys = Arrays.copyOf(baseKeys, baseSize * 2);
+            baseIds = Arrays.copyOf(baseIds, baseSize * 2);
+        }
+        baseKeys[baseSize] = key;
+        baseIds[baseSize++] = id;
+    }
+
+    private void insert(long key, long id) {
+        int b = find(baseKeys, baseIds, baseSize, key, id);
+        if (b >= 0) {
+            // Added again after a removal: the marked base entry comes back
+            if (baseIds[b] < 0) {
+                baseIds[b] = id;
+                baseRemoved--;
+            }
+            return;
+        }
+        int d = find(deltaKeys, deltaIds, deltaSize, key, id);
+        if (d >= 0) {
+            return;
+        }
+        if (deltaSize == deltaLimit) {
+            merge();
+            insert(key, id);
+            return;
+        }
+        int at = -d - 1;
+        System.arraycopy(deltaKeys, at, deltaKeys, at + 1, deltaSize - at);
+        System.arraycopy(deltaIds, at, deltaIds, at + 1, deltaSize - at);
+        deltaKeys[at] = key;
+        deltaIds[at] = id;
+        deltaSize++;
+    }
+
+    private void delete(long key, long id) {
+        int d = find(deltaKeys, deltaIds, deltaSize, key, id);
+        if (d >= 0) {
+            System.arraycopy(deltaKeys, d + 1, deltaKeys, d, deltaSize - d - 1);
+            System.arraycopy(deltaIds, d + 1, deltaIds, d, deltaSize - d - 1);
+            deltaSize--;
+            return;
+        }
+        int b = find(baseKeys, baseIds, baseSize, key, id);
+        if (b >= 0 && baseIds[b] >= 0) {
+            baseIds[b] = ~id;
+            baseRemoved++;
+        }
+    }
+
+    // Base and delta into a new base without the removed entries
+    private void merge() {
+        int size = baseSize - baseRemoved + deltaSize;
+        int capacity = Math.max(MIN_CAPACITY, size + size / 4);
+        long[] keys = new long[capacity];
+        long[] ids = new long[capacity];
+        int n = 0;
+        int b = 0;
+        int d = 0;
+        while (b < baseSize || d < deltaSize) {
+            if (b < baseSize && baseIds[b] < 0) {
+                b++;
+            } else if (b < baseSize && (d == deltaSize || compare(baseKeys[b], baseIds[b], deltaKeys[d], deltaIds[d]) < 0)) {
+                keys[n] = baseKeys[b];
+                ids[n++] = baseIds[b++];
+            } else {
+                keys[n] = deltaKeys[d];
+                ids[n++] = deltaIds[d++];
+            }
+        }
+        baseKeys = keys;
+        baseIds = ids;
+        baseSize = n;
+        baseRemoved = 0;
+        deltaSize = 0;
+    }
+
+    // Position of the entry, removed or not, or -(insertion point) - 1
+    private static int find(long[] keys, long[] ids, int size, long key, long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int order = compare(keys[mid], liveId(ids[mid]), key, id);
+            if (order < 0) {
+                low = mid + 1;
+            } else if (order > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    // First position whose key is not below the given key
+    private static int lowerBound(long[] keys, int size, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(long keyA, long idA, long keyB, long idB) {
+        int byKey = Long.compare(keyA, keyB);
+        return byKey != 0 ? byKey : Long.compare(idA, idB);
+    }
+
+    private static long liveId(long id) {
+        return id < 0 ? ~id : id;
+    }
+
+    private static boolean contains(long[] ids, int count, long id) {
+        for (int i = 0; i < count; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Quicksort of the entries by key, then id; recurses into the smaller side so the stack
+    // stays shallow on any input
+    private static void sort(long[] keys, long[] ids, int low, int high) {
+        while (high - low > 16) {
+            int mid = (low + high) >>> 1;
+            long pivotKey = keys[mid];
+            long pivotId = ids[mid];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(keys[i], ids[i], pivotKey, pivotId) < 0) {
+                    i++;
+                }
+                while (compare(keys[j], ids[j], pivotKey, pivotId) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(keys, ids, i++, j--);
+                }
+            }
+            if (j - low < high - i) {
+                sort(keys, ids, low, j);
+                low = i;
+            } else {
+                sort(keys, ids, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(keys[j - 1], ids[j - 1], keys[j], ids[j]) > 0; j--) {
+                swap(keys, ids, j - 1, j);
+            }
+        }
+    }
+
+    private static void swap(long[] keys, long[] ids, int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+    }
+}
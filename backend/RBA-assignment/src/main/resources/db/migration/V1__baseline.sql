@@ -0,0 +1,55 @@
+-- Schema as Hibernate's ddl-auto and schema.sql left it before migrations took over. Every
+-- statement is a no-op on a database they created, so V1 can run on those as well as on new ones
+
+CREATE TABLE IF NOT EXISTS client (
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255),
+    oib        VARCHAR(11)  NOT NULL UNIQUE,
+    status     ENUM ('ACTIVE', 'APPROVED', 'BLOCKED', 'INACTIVE', 'PENDING', 'REJECTED'),
+    version    BIGINT       DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS card (
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    card_number VARCHAR(255) NOT NULL UNIQUE,
+    oib         VARCHAR(11)  NOT NULL UNIQUE,
+    status      ENUM ('ACTIVE', 'APPROVED', 'BLOCKED', 'INACTIVE', 'PENDING', 'REJECTED'),
+    version     BIGINT       DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type            ENUM ('CARD_REQUEST', 'CARD_STATUS') NOT NULL,
+    oib             VARCHAR(11)                 NOT NULL,
+    payload         VARCHAR(2000)               NOT NULL,
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    next_attempt_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    attempts        INTEGER                     NOT NULL,
+    last_error      VARCHAR(500)
+);
+
+CREATE TABLE IF NOT EXISTS card_issuance_job (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    client_status  ENUM ('ACTIVE', 'APPROVED', 'BLOCKED', 'INACTIVE', 'PENDING', 'REJECTED') NOT NULL,
+    state          ENUM ('COMPLETED', 'FAILED', 'RUNNING') NOT NULL,
+    last_client_id BIGINT                      NOT NULL,
+    issued         BIGINT                      NOT NULL,
+    skipped        BIGINT                      NOT NULL,
+    started_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    finished_at    TIMESTAMP(6) WITH TIME ZONE,
+    error          VARCHAR(500)
+);
+
+-- Block counter for CardNumberAllocator; each value reserves card.number.block-size card numbers
+CREATE SEQUENCE IF NOT EXISTS card_number_block_seq START WITH 1;
+
+-- Client and card ids come from these in blocks of 50 (the value handed out is the top of the
+-- block). Restarting them past the highest existing id keeps new blocks clear of rows inserted
+-- while ids were IDENTITY columns
+CREATE SEQUENCE IF NOT EXISTS client_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE client_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM client);
+
+CREATE SEQUENCE IF NOT EXISTS card_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE card_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM card);
@@ -0,0 +1,23 @@
+-- Card -> client as a foreign key on the 8-byte client id, so joins compare integers instead of
+-- 11-character OIB strings. card.oib stays the card's own key: cards can be requested for an OIB
+-- before its client exists and outlive a deleted client, which leaves client_id empty
+ALTER TABLE card ADD COLUMN client_id BIGINT;
+
+UPDATE card k SET client_id = (SELECT c.id FROM client c WHERE c.oib = k.oib);
+
+-- One card per client; also the index behind the foreign key
+CREATE UNIQUE INDEX ux_card_client_id ON card (client_id);
+
+ALTER TABLE card ADD CONSTRAINT fk_card_client FOREIGN KEY (client_id) REFERENCES client (id) ON DELETE SET NULL;
+
+-- Card numbers are always 16 digits
+ALTER TABLE card ALTER COLUMN card_number SET DATA TYPE VARCHAR(16);
+
+-- Status and last name filters of the client and card listings, in id order for the keyset cursor;
+-- the status index also serves the issuance scan for clients without a card
+CREATE INDEX ix_client_status_id ON client (status, id);
+CREATE INDEX ix_client_last_name_id ON client (last_name, id);
+CREATE INDEX ix_card_status_id ON card (status, id);
+
+-- The outbox relay's check for an earlier undelivered event of the same OIB and type
+CREATE INDEX ix_outbox_event_oib_type_id ON outbox_event (oib, type, id);
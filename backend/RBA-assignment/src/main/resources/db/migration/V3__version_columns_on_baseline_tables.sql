@@ -0,0 +1,4 @@
+-- Databases created by the baseline release have client and card without the optimistic lock
+-- version, which V1 could not add to tables that already existed. A no-op everywhere else
+ALTER TABLE client ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE card ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
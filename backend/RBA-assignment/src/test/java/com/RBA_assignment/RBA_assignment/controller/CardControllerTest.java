@@ -0,0 +1,58 @@
+package com.RBA_assignment.RBA_assignment.controller;
+
+import com.RBA_assignment.RBA_assignment.dto.CardDTO;
+import com.RBA_assignment.RBA_assignment.dto.ChangeEvent;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.service.CardService;
+import com.RBA_assignment.RBA_assignment.service.ExportService;
+import com.RBA_assignment.RBA_assignment.service.TableVersions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class CardControllerTest {
+
+    private final String oib = "85251569017";
+
+    private CardService cardService;
+    private TableVersions tableVersions;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        cardService = mock(CardService.class);
+        tableVersions = new TableVersions();
+        mockMvc = MockMvcBuilders.standaloneSetup(new CardController(cardService, mock(ExportService.class), tableVersions)).build();
+    }
+
+    @Test
+    void getAllCards() throws Exception {
+        when(cardService.getAllCards()).thenReturn(List.of(new CardDTO("4539578763621486", oib, "ACTIVE")));
+
+        String etag = mockMvc.perform(get("/api/v1/cards"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].oib").value(oib))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/cards").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(cardService, times(1)).getAllCards();
+
+        // A client-only write leaves the card list's tag alone
+        tableVersions.changed(ChangeEvent.clientDeleted(oib));
+        mockMvc.perform(get("/api/v1/cards").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        tableVersions.changed(ChangeEvent.cardSaved(oib, "4539578763621486", Status.BLOCKED));
+        mockMvc.perform(get("/api/v1/cards").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+}
@@ -1,26 +1,116 @@
 package com.RBA_assignment.RBA_assignment.controller;
 
+import com.RBA_assignment.RBA_assignment.dto.ChangeEvent;
+import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.handlers.GlobalExceptionHandler;
+import com.RBA_assignment.RBA_assignment.model.Client;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.service.ClientImportService;
+import com.RBA_assignment.RBA_assignment.service.ClientService;
+import com.RBA_assignment.RBA_assignment.service.ExportService;
+import com.RBA_assignment.RBA_assignment.service.TableVersions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 class ClientControllerTest {
 
+    private final String oib = "85251569017";
+
+    private ClientService clientService;
+    private TableVersions tableVersions;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        clientService = mock(ClientService.class);
+        tableVersions = new TableVersions();
+        mockMvc = MockMvcBuilders.standaloneSetup(new ClientController(
+                        clientService, mock(ExportService.class), mock(ClientImportService.class), tableVersions))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
     @Test
     void createClient() {
     }
 
     @Test
-    void getClientByOib() {
+    void getClientByOib() throws Exception {
+        when(clientService.getClientVersionTag(oib)).thenReturn("7-3");
+        when(clientService.getClientByOib(oib)).thenReturn(new ClientDTO("John", "Doe", oib, "ACTIVE"));
+
+        String etag = mockMvc.perform(get("/api/v1/clients/{oib}", oib))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.oib").value(oib))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/clients/{oib}", oib).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        // The unchanged client is never loaded for the conditional request
+        verify(clientService, times(1)).getClientByOib(oib);
+
+        when(clientService.getClientVersionTag(oib)).thenReturn("7-4");
+        mockMvc.perform(get("/api/v1/clients/{oib}", oib).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
     }
 
     @Test
-    void getAllClients() {
+    void getAllClients() throws Exception {
+        when(clientService.getAllClients()).thenReturn(List.of(new ClientDTO("John", "Doe", oib, "ACTIVE")));
+
+        String etag = mockMvc.perform(get("/api/v1/clients"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/clients").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(clientService, times(1)).getAllClients();
+
+        tableVersions.changed(ChangeEvent.statusChanged(oib, Status.BLOCKED));
+        mockMvc.perform(get("/api/v1/clients").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getClientsPage_shouldRejectBadParametersButHideInternalErrors() throws Exception {
+        mockMvc.perform(get("/api/v1/clients/page").param("status", "foo"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.description").value("Bad Request - Unknown status: foo"));
+
+        when(clientService.getClientsPage(any(), any(), any(), any())).thenThrow(new IllegalArgumentException("internal detail"));
+        mockMvc.perform(get("/api/v1/clients/page"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.description").value(not(containsString("internal detail"))));
     }
 
     @Test
-    void updateClient() {
+    void updateClient() throws Exception {
+        when(clientService.updateClient(any())).thenThrow(new ObjectOptimisticLockingFailureException(Client.class, 7L));
+
+        mockMvc.perform(put("/api/v1/clients")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"John\",\"lastName\":\"Doe\",\"oib\":\"" + oib + "\",\"status\":\"ACTIVE\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value("409"));
     }
 
     @Test
     void deleteClient() {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package com.RBA_assignment.RBA_assignment.kafka;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CardStatusCodecTest {
+
+    private final CardStatusDeserializer deserializer = new CardStatusDeserializer();
+
+    @Test
+    void binary_shouldRoundTripEveryStatusAndKeepLeadingZeros() {
+        for (Status status : Status.values()) {
+            byte[] bytes = CardStatusCodec.encode(new CardStatusMessage("00251569017", status.name()));
+
+            assertThat(bytes).hasSize(CardStatusCodec.LENGTH);
+            CardStatusMessage decoded = deserializer.deserialize("card-status", bytes);
+            assertThat(decoded.getOib()).isEqualTo("00251569017");
+            assertThat(decoded.getStatus()).isEqualTo(status);
+        }
+    }
+
+    @Test
+    void deserialize_shouldStillReadJsonWrittenBeforeTheSwitch() {
+        byte[] json = "{\"oib\":\"85251569017\",\"status\":\"blocked\"}".getBytes(StandardCharsets.UTF_8);
+
+        CardStatusMessage decoded = deserializer.deserialize("card-status", json);
+
+        assertThat(decoded.getOib()).isEqualTo("85251569017");
+        assertThat(decoded.getStatus()).isEqualTo(Status.BLOCKED);
+    }
+
+    @Test
+    void serializer_shouldWriteTheConfiguredFormat() {
+        CardStatusMessage message = new CardStatusMessage("85251569017", "ACTIVE");
+        CardStatusSerializer binary = new CardStatusSerializer();
+        binary.configure(Map.of(CardStatusSerializer.WIRE_FORMAT_CONFIG, "binary"), false);
+
+        byte[] jsonBytes = new CardStatusSerializer().serialize("card-status", message);
+        byte[] binaryBytes = binary.serialize("card-status", message);
+
+        assertThat(jsonBytes[0]).isEqualTo((byte) '{');
+        assertThat(binaryBytes).hasSize(CardStatusCodec.LENGTH);
+        assertThat(deserializer.deserialize("card-status", jsonBytes)).isEqualTo(message);
+        assertThat(deserializer.deserialize("card-status", binaryBytes)).isEqualTo(message);
+    }
+
+    @Test
+    void deserialize_shouldReturnNullForUnreadableRecords() {
+        assertThat(deserializer.deserialize("card-status", "not json".getBytes(StandardCharsets.UTF_8))).isNull();
+        assertThat(deserializer.deserialize("card-status", "{\"oib\":\"85251569017\",\"status\":\"foo\"}".getBytes(StandardCharsets.UTF_8))).isNull();
+        assertThat(deserializer.deserialize("card-status", "{\"oib\":\"85251569017\"}".getBytes(StandardCharsets.UTF_8))).isNull();
+        // Right version byte, wrong length
+        assertThat(deserializer.deserialize("card-status", new byte[]{CardStatusCodec.VERSION, 0, 0})).isNull();
+        // Status ordinal past the end of the enum
+        byte[] bytes = CardStatusCodec.encode(new CardStatusMessage("85251569017", "ACTIVE"));
+        bytes[9] = 100;
+        assertThat(deserializer.deserialize("card-status", bytes)).isNull();
+    }
+
+    @Test
+    void encode_shouldRejectNonNumericOib() {
+        assertThatThrownBy(() -> CardStatusCodec.encode(new CardStatusMessage("8525156901x", "ACTIVE")))
+                .isInstanceOf(NumberFormatException.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.RBA_assignment.RBA_assignment.kafka;
+
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.service.StatusChangeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class CardStatusWriteBehindBufferTest {
+
+    private final TopicPartition partition = new TopicPartition("card-status", 0);
+
+    private StatusChangeService statusChangeService;
+    private CardStatusWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        statusChangeService = mock(StatusChangeService.class);
+        // Flushes are driven by the test, the scheduled one never comes around
+        buffer = new CardStatusWriteBehindBuffer(statusChangeService, new SimpleMeterRegistry(), 3_600_000, 1_000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        buffer.shutdown();
+    }
+
+    @Test
+    void flush_shouldWriteLatestStatusPerOibAndAcknowledgeAfterwards() {
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+        Acknowledgment third = mock(Acknowledgment.class);
+        buffer.add("85251569017", Status.BLOCKED, partition, first);
+        buffer.add("85251569017", Status.ACTIVE, partition, second);
+        buffer.add("69435151530", Status.BLOCKED, partition, third);
+
+        buffer.flush();
+
+        var order = inOrder(statusChangeService, third);
+        order.verify(statusChangeService).applyLatest(Map.of("85251569017", Status.ACTIVE, "69435151530", Status.BLOCKED));
+        // The latest record of the partition covers the earlier offsets
+        order.verify(third).acknowledge();
+        verifyNoInteractions(first, second);
+    }
+
+    @Test
+    void flush_shouldKeepStatusesAndOffsetsWhenWriteFails() {
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        buffer.add("85251569017", Status.BLOCKED, partition, acknowledgment);
+        doThrow(new IllegalStateException("database down")).doNothing()
+                .when(statusChangeService).applyLatest(anyMap());
+
+        buffer.flush();
+        verify(acknowledgment, never()).acknowledge();
+
+        buffer.flush();
+        verify(statusChangeService, times(2)).applyLatest(Map.of("85251569017", Status.BLOCKED));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void onPartitionsRevoked_shouldDropWhatTheRevokedPartitionBuffered() {
+        TopicPartition kept = new TopicPartition("card-status", 1);
+        Acknowledgment revokedAcknowledgment = mock(Acknowledgment.class);
+        Acknowledgment keptAcknowledgment = mock(Acknowledgment.class);
+        buffer.add("85251569017", Status.BLOCKED, partition, revokedAcknowledgment);
+        buffer.add("69435151530", Status.ACTIVE, kept, keptAcknowledgment);
+
+        buffer.onPartitionsRevokedBeforeCommit(mock(Consumer.class), List.of(partition));
+        buffer.flush();
+
+        verify(statusChangeService).applyLatest(Map.of("69435151530", Status.ACTIVE));
+        verify(keptAcknowledgment).acknowledge();
+        verifyNoInteractions(revokedAcknowledgment);
+    }
+}
@@ -0,0 +1,57 @@
+package com.RBA_assignment.RBA_assignment.repository;
+
+import com.RBA_assignment.RBA_assignment.model.Card;
+import com.RBA_assignment.RBA_assignment.model.Client;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Migrates a database created by the baseline release, which has no Flyway history, and starts
+// Hibernate against it with ddl-auto=validate
+@DataJpaTest(properties = {
+        "spring.datasource.url=" + BaselineMigrationTest.URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BaselineMigrationTest {
+    static final String URL = "jdbc:h2:mem:baseline-migration;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private CardRepository cardRepository;
+
+    @BeforeAll
+    static void createBaselineDatabase() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "")) {
+            connection.createStatement().execute("runscript from 'classpath:db/baseline-schema.sql'");
+        }
+    }
+
+    @Test
+    void shouldMigrateBaselineRowsAndKeepWriting() {
+        Client ana = clientRepository.findByOib("85251569017").orElseThrow();
+        assertThat(ana.getVersion()).isZero();
+        Card card = cardRepository.findByOib("85251569017").orElseThrow();
+        assertThat(card.getClient().getId()).isEqualTo(ana.getId());
+
+        ana.setStatus(Status.BLOCKED);
+        clientRepository.saveAndFlush(ana);
+        Client created = clientRepository.saveAndFlush(Client.builder()
+                .firstName("Marko").lastName("Marić").oib("12345678903").status(Status.ACTIVE).build());
+
+        assertThat(ana.getVersion()).isEqualTo(1);
+        assertThat(created.getId()).isGreaterThan(clientRepository.findByOib("69435151530").orElseThrow().getId());
+    }
+}
@@ -0,0 +1,139 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.CardIssuanceJobDTO;
+import com.RBA_assignment.RBA_assignment.model.Card;
+import com.RBA_assignment.RBA_assignment.model.CardIssuanceJob;
+import com.RBA_assignment.RBA_assignment.model.Client;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.repository.CardIssuanceJobRepository;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CardIssuanceServiceTest {
+
+    private ClientRepository clientRepository;
+    private CardRepository cardRepository;
+    private CardIssuanceJobRepository cardIssuanceJobRepository;
+    private EntityManager entityManager;
+    private CardIssuanceService cardIssuanceService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        clientRepository = mock(ClientRepository.class);
+        cardRepository = mock(CardRepository.class);
+        cardIssuanceJobRepository = mock(CardIssuanceJobRepository.class);
+        when(cardIssuanceJobRepository.save(any())).thenAnswer(invocation -> {
+            CardIssuanceJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(1L);
+            }
+            when(cardIssuanceJobRepository.findById(1L)).thenReturn(Optional.of(job));
+            return job;
+        });
+        entityManager = mock(EntityManager.class);
+        CardNumberAllocator cardNumberAllocator = mock(CardNumberAllocator.class);
+        when(cardNumberAllocator.next()).thenReturn("4000000000000002", "4000000000000010", "4000000000000028");
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        LookupCache lookupCache = new LookupCache(new ConcurrentMapCacheManager(
+                LookupCache.CLIENTS_BY_OIB, LookupCache.CARDS_BY_OIB, LookupCache.CARD_OIBS_BY_NUMBER));
+        cardIssuanceService = new CardIssuanceService(
+                clientRepository,
+                cardRepository,
+                cardIssuanceJobRepository,
+                cardNumberAllocator,
+                entityManager,
+                transactionTemplate,
+                lookupCache,
+                new LookupIndex(clientRepository, cardRepository, transactionTemplate, false),
+                new StatusAggregates(clientRepository, cardRepository),
+                mock(ApplicationEventPublisher.class),
+                2,
+                1
+        );
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        cardIssuanceService.shutdown();
+    }
+
+    @Test
+    void start_shouldRetryClashingChunkCardByCardAndAttachTheExistingCard() throws Exception {
+        when(clientRepository.findWithoutCardAfter(anyLong(), any(), any()))
+                .thenReturn(List.of(client(1L, "85251569017"), client(2L, "69435151530")))
+                .thenReturn(List.of());
+        DataIntegrityViolationException clash = new DataIntegrityViolationException("Unique index or primary key violation");
+        doThrow(clash).doNothing().doThrow(clash).when(cardRepository).flush();
+        when(cardRepository.existsByOib("69435151530")).thenReturn(true);
+
+        CardIssuanceJobDTO job = awaitJob(cardIssuanceService.start(Status.ACTIVE));
+
+        assertThat(job.getState()).isEqualTo("COMPLETED");
+        assertThat(job.getIssued()).isEqualTo(1);
+        assertThat(job.getSkipped()).isEqualTo(1);
+        assertThat(job.getLastClientId()).isEqualTo(2L);
+        verify(cardRepository, times(3)).flush();
+        verify(cardRepository).linkToClients(List.of("69435151530"));
+    }
+
+    @Test
+    void start_shouldIssueAFreshNumberWhenTheAllocatedOneIsTaken() throws Exception {
+        when(clientRepository.findWithoutCardAfter(anyLong(), any(), any()))
+                .thenReturn(List.of(client(1L, "85251569017"), client(2L, "69435151530")))
+                .thenReturn(List.of());
+        DataIntegrityViolationException clash = new DataIntegrityViolationException("Unique index or primary key violation");
+        doThrow(clash).doNothing().doThrow(clash).doNothing().when(cardRepository).flush();
+        List<String> persisted = new ArrayList<>();
+        doAnswer(invocation -> persisted.add(invocation.<Card>getArgument(0).getCardNumber()))
+                .when(entityManager).persist(any());
+
+        CardIssuanceJobDTO job = awaitJob(cardIssuanceService.start(Status.ACTIVE));
+
+        assertThat(job.getState()).isEqualTo("COMPLETED");
+        assertThat(job.getIssued()).isEqualTo(2);
+        assertThat(job.getSkipped()).isZero();
+        assertThat(persisted).endsWith("4000000000000010", "4000000000000028");
+        verify(cardRepository, never()).linkToClients(any());
+    }
+
+    private CardIssuanceJobDTO awaitJob(CardIssuanceJobDTO job) throws InterruptedException {
+        for (int i = 0; i < 100 && "RUNNING".equals(job.getState()); i++) {
+            Thread.sleep(50);
+            job = cardIssuanceService.getJob(job.getId());
+        }
+        return job;
+    }
+
+    private static Client client(Long id, String oib) {
+        return Client.builder()
+                .id(id)
+                .firstName("John")
+                .lastName("Doe")
+                .oib(oib)
+                .status(Status.ACTIVE)
+                .build();
+    }
+}
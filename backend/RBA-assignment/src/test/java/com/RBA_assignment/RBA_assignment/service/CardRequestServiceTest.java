@@ -0,0 +1,83 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CardRequestServiceTest {
+
+    private static final String URL = "http://card-service/api/v1/card-request";
+
+    private RestTemplate restTemplate;
+    private CircuitBreaker circuitBreaker;
+    private CardRequestService cardRequestService;
+
+    private final ClientDTO client = new ClientDTO("John", "Doe", "85251569017", "PENDING");
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        circuitBreaker = CircuitBreaker.of("test", CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .build());
+        cardRequestService = new CardRequestService(restTemplate, circuitBreaker, Bulkhead.ofDefaults("test"));
+        ReflectionTestUtils.setField(cardRequestService, "url", URL);
+    }
+
+    @Test
+    void sendCardRequest_shouldShareOneCallBetweenConcurrentCallersForSameOib() throws Exception {
+        CountDownLatch callStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.postForObject(eq(URL), any(), eq(CardStatusMessage.class))).thenAnswer(invocation -> {
+            callStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> cardRequestService.sendCardRequest(client));
+        assertThat(callStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> cardRequestService.sendCardRequest(client));
+        Thread.sleep(100);
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        verify(restTemplate, times(1)).postForObject(eq(URL), any(), eq(CardStatusMessage.class));
+    }
+
+    @Test
+    void sendCardRequest_shouldFailFastOnceCircuitIsOpen() {
+        when(restTemplate.postForObject(eq(URL), any(), eq(CardStatusMessage.class)))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> cardRequestService.sendCardRequest(client))
+                    .isInstanceOf(HttpServerErrorException.class);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> cardRequestService.sendCardRequest(client))
+                .isInstanceOf(CallNotPermittedException.class);
+        verify(restTemplate, times(2)).postForObject(eq(URL), any(), eq(CardStatusMessage.class));
+    }
+}
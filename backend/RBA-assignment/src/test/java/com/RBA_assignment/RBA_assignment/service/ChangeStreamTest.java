@@ -0,0 +1,183 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.ChangeEvent;
+import com.RBA_assignment.RBA_assignment.dto.ChangeEventBatch;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ChangeStreamTest {
+
+    private static final long NO_HEARTBEAT = TimeUnit.HOURS.toMillis(1);
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private ChangeStream changeStream;
+
+    @AfterEach
+    void tearDown() {
+        emitters.forEach(emitter -> emitter.release.countDown());
+        changeStream.shutdown();
+    }
+
+    @Test
+    void publish_shouldDeliverEveryEventToEverySubscriberInOrder() throws Exception {
+        changeStream = changeStream(1000, NO_HEARTBEAT);
+        RecordingEmitter first = subscribe();
+        RecordingEmitter second = subscribe();
+
+        for (int i = 0; i < 200; i++) {
+            changeStream.publish(ChangeEvent.statusChanged(oib(i), Status.ACTIVE));
+        }
+
+        for (RecordingEmitter emitter : List.of(first, second)) {
+            for (int i = 0; i < 200; i++) {
+                assertThat(next(emitter)).contains("\"oib\":\"" + oib(i) + "\"");
+            }
+        }
+    }
+
+    @Test
+    void publish_shouldSendABatchAsOneArrayMessage() throws Exception {
+        changeStream = changeStream(1000, NO_HEARTBEAT);
+        RecordingEmitter emitter = subscribe();
+
+        changeStream.publish(new ChangeEventBatch(List.of(
+                ChangeEvent.cardSaved(oib(1), "4000000000000002", Status.ACTIVE),
+                ChangeEvent.cardSaved(oib(2), "4000000000000010", Status.ACTIVE))));
+
+        String frame = next(emitter);
+        assertThat(frame).startsWith("data:[{").contains(oib(1)).contains(oib(2));
+        assertThat(emitter.sent).isEmpty();
+    }
+
+    @Test
+    void publish_shouldEvictSubscriberThatFallsBehindWithoutWaitingForIt() throws Exception {
+        changeStream = changeStream(2, NO_HEARTBEAT);
+        RecordingEmitter stalled = subscribe();
+        stalled.release = new CountDownLatch(1);
+
+        changeStream.publish(ChangeEvent.statusChanged(oib(0), Status.ACTIVE));
+        assertThat(stalled.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        // The stalled sender holds its emitter's lock; eviction must not wait for it
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 1; i < 4; i++) {
+                changeStream.publish(ChangeEvent.statusChanged(oib(i), Status.ACTIVE));
+            }
+        });
+
+        assertThat(changeStream.getEvicted()).isEqualTo(1);
+        assertThat(changeStream.getSubscribers()).isZero();
+        stalled.release.countDown();
+        assertThat(stalled.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stalled.sent).hasSize(1);
+    }
+
+    @Test
+    void heartbeat_shouldSendCommentsAndNeverEvict() throws Exception {
+        changeStream = changeStream(1, 20);
+        RecordingEmitter emitter = subscribe();
+
+        assertThat(next(emitter)).startsWith(":");
+
+        // Heartbeats pile up behind a stalled write and are dropped, the subscriber stays
+        emitter.release = new CountDownLatch(1);
+        Thread.sleep(200);
+        assertThat(changeStream.getEvicted()).isZero();
+        assertThat(changeStream.getSubscribers()).isEqualTo(1);
+    }
+
+    @Test
+    void send_shouldDropSubscriberThatDisconnectsMidStream() throws Exception {
+        changeStream = changeStream(1000, NO_HEARTBEAT);
+        RecordingEmitter leaving = subscribe();
+        RecordingEmitter staying = subscribe();
+        leaving.failAfter = 1;
+
+        for (int i = 0; i < 3; i++) {
+            changeStream.publish(ChangeEvent.statusChanged(oib(i), Status.ACTIVE));
+        }
+        for (int i = 0; i < 3; i++) {
+            assertThat(next(staying)).contains(oib(i));
+        }
+        for (int i = 0; i < 100 && changeStream.getSubscribers() > 1; i++) {
+            Thread.sleep(10);
+        }
+        changeStream.publish(ChangeEvent.statusChanged(oib(3), Status.ACTIVE));
+
+        assertThat(next(staying)).contains(oib(3));
+        assertThat(changeStream.getSubscribers()).isEqualTo(1);
+        assertThat(changeStream.getEvicted()).isZero();
+        assertThat(leaving.sent).hasSize(1);
+    }
+
+    private ChangeStream changeStream(int bufferSize, long heartbeatMs) {
+        return new ChangeStream(Jackson2ObjectMapperBuilder.json().build(), 10, bufferSize, 60_000, heartbeatMs) {
+            @Override
+            SseEmitter newEmitter(long timeoutMs) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private RecordingEmitter subscribe() {
+        return (RecordingEmitter) changeStream.subscribe();
+    }
+
+    private static String next(RecordingEmitter emitter) throws InterruptedException {
+        String frame = emitter.sent.poll(5, TimeUnit.SECONDS);
+        assertThat(frame).as("frame sent within 5 s").isNotNull();
+        return frame;
+    }
+
+    private static String oib(int i) {
+        return String.format("%011d", i);
+    }
+
+    // Records frames instead of writing them; a send can be held back or made to fail like a
+    // dropped connection
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile CountDownLatch release = new CountDownLatch(0);
+        private volatile int failAfter = Integer.MAX_VALUE;
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> frame) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if (sent.size() >= failAfter) {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(frame.stream().map(data -> data.getData().toString()).collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+}
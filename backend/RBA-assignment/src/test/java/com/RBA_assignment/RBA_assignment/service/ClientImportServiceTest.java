@@ -0,0 +1,135 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.ClientImportReport;
+import com.RBA_assignment.RBA_assignment.dto.ClientImportResult;
+import com.RBA_assignment.RBA_assignment.dto.ClientImportResult.Outcome;
+import com.RBA_assignment.RBA_assignment.model.Client;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ClientImportServiceTest {
+
+    private ClientRepository clientRepository;
+    private CardRepository cardRepository;
+    private EntityManager entityManager;
+    private ClientImportService clientImportService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        clientRepository = mock(ClientRepository.class);
+        cardRepository = mock(CardRepository.class);
+        entityManager = mock(EntityManager.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+        LookupCache lookupCache = new LookupCache(new ConcurrentMapCacheManager(
+                LookupCache.CLIENTS_BY_OIB, LookupCache.CARDS_BY_OIB, LookupCache.CARD_OIBS_BY_NUMBER));
+        clientImportService = new ClientImportService(
+                clientRepository,
+                cardRepository,
+                entityManager,
+                transactionTemplate,
+                lookupCache,
+                new LookupIndex(clientRepository, null, transactionTemplate, false),
+                new ClientSearchIndex(clientRepository, transactionTemplate, false),
+                new StatusAggregates(clientRepository, cardRepository),
+                mock(ApplicationEventPublisher.class),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                Jackson2ObjectMapperBuilder.json().build(),
+                2
+        );
+    }
+
+    @Test
+    void importClients_shouldReportEveryRowAndInsertOnlyNewClients() throws Exception {
+        when(clientRepository.findExistingOibs(anyCollection())).thenReturn(List.of("69435151530"));
+        String ndjson = """
+                {"firstName":"John","lastName":"Doe","oib":"85251569017","status":"PENDING"}
+                {"firstName":"Jane","lastName":"Doe","oib":"12345678901","status":"PENDING"}
+                {"firstName":"John","lastName":"Again","oib":"85251569017","status":"PENDING"}
+                {"firstName":"Ana","lastName":"Horvat","oib":"69435151530","status":"ACTIVE"}
+                {"firstName":"Ivo","lastName":"Ivic","oib":"20000000009","status":"ACTIVE"}
+                """;
+
+        ClientImportReport report = clientImportService.importClients(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.getRows()).extracting(ClientImportResult::getResult).containsExactly(
+                Outcome.CREATED, Outcome.INVALID, Outcome.DUPLICATE, Outcome.DUPLICATE, Outcome.CREATED);
+        assertThat(report.getTotal()).isEqualTo(5);
+        assertThat(report.getCreated()).isEqualTo(2);
+        assertThat(report.getDuplicates()).isEqualTo(2);
+        assertThat(report.getInvalid()).isEqualTo(1);
+        assertThat(report.getError()).isNull();
+
+        ArgumentCaptor<Client> persisted = ArgumentCaptor.forClass(Client.class);
+        verify(entityManager, times(2)).persist(persisted.capture());
+        assertThat(persisted.getAllValues()).extracting(Client::getOib).containsExactly("85251569017", "20000000009");
+        // One existence query and one flush per chunk of two
+        verify(clientRepository, times(2)).findExistingOibs(anyCollection());
+        verify(clientRepository, times(2)).flush();
+        // Cards requested before their clients existed are attached with one statement per chunk
+        verify(cardRepository).linkToClients(List.of("85251569017"));
+        verify(cardRepository).linkToClients(List.of("20000000009"));
+    }
+
+    @Test
+    void importClients_shouldRetryClashingChunkRowByRow() throws Exception {
+        // Both OIBs looked new, but one was inserted concurrently: the chunk flush clashes, then
+        // only that row does when retried on its own
+        when(clientRepository.findExistingOibs(anyCollection())).thenReturn(List.of());
+        DataIntegrityViolationException clash = new DataIntegrityViolationException("Unique index or primary key violation");
+        doThrow(clash).doNothing().doThrow(clash).when(clientRepository).flush();
+        String ndjson = """
+                {"firstName":"John","lastName":"Doe","oib":"85251569017","status":"PENDING"}
+                {"firstName":"Ana","lastName":"Horvat","oib":"69435151530","status":"ACTIVE"}
+                """;
+
+        ClientImportReport report = clientImportService.importClients(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.getRows()).extracting(ClientImportResult::getResult)
+                .containsExactly(Outcome.CREATED, Outcome.DUPLICATE);
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(report.getDuplicates()).isEqualTo(1);
+        assertThat(report.getFailed()).isZero();
+        verify(clientRepository, times(3)).flush();
+    }
+
+    @Test
+    void importClients_shouldAcceptJsonArrayAndStopAtBrokenSyntax() throws Exception {
+        when(clientRepository.findExistingOibs(anyCollection())).thenReturn(List.of());
+        String json = """
+                [{"firstName":"John","lastName":"Doe","oib":"85251569017","status":"PENDING"},
+                 {"firstName":"Ana","lastName":
+                """;
+
+        ClientImportReport report = clientImportService.importClients(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(report.getTotal()).isEqualTo(1);
+        assertThat(report.getError()).startsWith("Input unreadable after row 2");
+    }
+}
@@ -1,32 +1,47 @@
 package com.RBA_assignment.RBA_assignment.service;
 
 import com.RBA_assignment.RBA_assignment.dto.ClientDTO;
+import com.RBA_assignment.RBA_assignment.dto.ClientWithCardDTO;
+import com.RBA_assignment.RBA_assignment.dto.CursorPage;
 import com.RBA_assignment.RBA_assignment.model.Client;
 import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
 import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.RBA_assignment.RBA_assignment.utils.KeysetCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
+import static com.RBA_assignment.RBA_assignment.model.Status.ACTIVE;
 import static com.RBA_assignment.RBA_assignment.model.Status.APPROVED;
 import static com.RBA_assignment.RBA_assignment.model.Status.PENDING;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class ClientServiceImplTest {
 
     private ClientRepository clientRepository;
+    private CardRepository cardRepository;
     private ClientServiceImpl clientService;
-    private CardRequestService cardRequestService;
+    private OutboxService outboxService;
 
     private final String oib = "85251569017";
 
     @BeforeEach
     void setUp() {
         clientRepository = mock(ClientRepository.class);
-        cardRequestService = mock(CardRequestService.class);
-        clientService = new ClientServiceImpl(clientRepository, cardRequestService);
+        cardRepository = mock(CardRepository.class);
+        outboxService = mock(OutboxService.class);
+        LookupCache lookupCache = new LookupCache(new ConcurrentMapCacheManager(
+                LookupCache.CLIENTS_BY_OIB, LookupCache.CARDS_BY_OIB, LookupCache.CARD_OIBS_BY_NUMBER));
+        clientService = new ClientServiceImpl(clientRepository, cardRepository, outboxService, lookupCache,
+                new LookupIndex(clientRepository, null, null, false), new ClientSearchIndex(clientRepository, null, false),
+                new StatusAggregates(clientRepository, cardRepository), mock(ApplicationEventPublisher.class));
     }
 
     @Test
@@ -44,6 +59,8 @@ class ClientServiceImplTest {
         ArgumentCaptor<Client> captor = ArgumentCaptor.forClass(Client.class);
         verify(clientRepository).save(captor.capture());
         assertThat(captor.getValue().getOib()).isEqualTo(oib);
+        verify(outboxService).enqueueCardRequest(any(ClientDTO.class));
+        verify(cardRepository).linkToClients(java.util.List.of(oib));
         assertThat(result.getOib()).isEqualTo(oib);
         assertThat(result.getFirstName()).isEqualTo(firstName);
         assertThat(result.getLastName()).isEqualTo(lastName);
@@ -51,7 +68,7 @@ class ClientServiceImplTest {
     }
 
     @Test
-    void getClientByOib_shouldReturnClientDTOAndCreateNewCardRequest() {
+    void getClientByOib_shouldReturnClientDTOWithoutWriting() {
         String firstName = "Jane";
         String lastName = "Smith";
 
@@ -67,7 +84,23 @@ class ClientServiceImplTest {
         assertThat(result.getLastName()).isEqualTo(lastName);
         assertThat(result.getStatus()).isEqualTo(APPROVED);
 
-        verify(cardRequestService).requestCardForClient(any(ClientDTO.class));
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void getClientByOib_shouldServeRepeatedLookupsFromCacheUntilUpdated() {
+        Client clientEntity = createClient("Jane", "Smith", oib, APPROVED);
+
+        when(clientRepository.findByOib(oib)).thenReturn(java.util.Optional.of(clientEntity));
+        when(clientRepository.save(any(Client.class))).thenReturn(clientEntity);
+
+        clientService.getClientByOib(oib);
+        clientService.getClientByOib(oib);
+        verify(clientRepository, times(1)).findByOib(oib);
+
+        clientService.updateClient(createClientDTO("Jane", "Smith", oib, PENDING));
+        clientService.getClientByOib(oib);
+        verify(clientRepository, times(3)).findByOib(oib);
     }
 
     @Test
@@ -97,6 +130,48 @@ class ClientServiceImplTest {
         assertThat(result.getLast().getLastName()).isEqualTo(secondLastName);
     }
 
+    @Test
+    void getClientsPage_shouldReturnNextCursorWhenMoreRowsExist() {
+        Client client1 = createClient("Jane", "Smith", "11111111111", PENDING);
+        client1.setId(10L);
+        Client client2 = createClient("John", "Smithson", "22222222222", PENDING);
+        client2.setId(11L);
+        Client client3 = createClient("Jack", "Smithers", "33333333333", PENDING);
+        client3.setId(12L);
+
+        when(clientRepository.findPageAfter(eq(0L), eq(PENDING), eq("Smi%"), any(Limit.class)))
+                .thenReturn(java.util.List.of(client1, client2, client3));
+
+        CursorPage<ClientDTO> result = clientService.getClientsPage(null, 2, PENDING, "Smi");
+
+        assertThat(result.getItems()).hasSize(2);
+        assertThat(result.getItems().getLast().getOib()).isEqualTo("22222222222");
+        assertThat(KeysetCursor.decode(result.getNextCursor())).isEqualTo(11L);
+        verify(clientRepository).findPageAfter(0L, PENDING, "Smi%", Limit.of(3));
+    }
+
+    @Test
+    void getClientWithCard_shouldReturnJoinedRowWithoutQueueingCardRequest() {
+        when(clientRepository.findWithCardByOib(oib)).thenReturn(java.util.Optional.of(
+                new ClientWithCardDTO(1L, "John", "Doe", oib, ACTIVE, "4000000000000001", ACTIVE)));
+
+        ClientWithCardDTO result = clientService.getClientWithCard(oib);
+
+        assertThat(result.getCard().getCardNumber()).isEqualTo("4000000000000001");
+        assertThat(result.getCard().getOib()).isEqualTo(oib);
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void searchClients_withoutIndex_shouldQueryNormalizedPrefix() {
+        Client client = createClient("Ivana", "Horvat", oib, ACTIVE);
+        when(clientRepository.findByNamePrefix("hor%", Limit.of(ClientSearchIndex.DEFAULT_LIMIT))).thenReturn(java.util.List.of(client));
+
+        java.util.List<ClientDTO> result = clientService.searchClients(" Hor ", null);
+
+        assertThat(result).extracting(ClientDTO::getOib).containsExactly(oib);
+    }
+
     @Test
     void updateClient_shouldUpdateAndReturnClientDTO() {
         String originalFirstName = "Jane";
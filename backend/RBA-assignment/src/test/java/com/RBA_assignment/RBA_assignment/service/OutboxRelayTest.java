@@ -0,0 +1,94 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.CardStatusMessage;
+import com.RBA_assignment.RBA_assignment.kafka.CardStatusProducer;
+import com.RBA_assignment.RBA_assignment.model.OutboxEvent;
+import com.RBA_assignment.RBA_assignment.model.OutboxEventType;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.OutboxEventRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.kafka.KafkaException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private CardStatusProducer cardStatusProducer;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        cardStatusProducer = mock(CardStatusProducer.class);
+        outboxRelay = new OutboxRelay(
+                outboxEventRepository,
+                cardStatusProducer,
+                mock(CardRequestService.class),
+                mock(CardRepository.class),
+                Jackson2ObjectMapperBuilder.json().build(),
+                Bulkhead.ofDefaults("test"),
+                false);
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 200);
+        ReflectionTestUtils.setField(outboxRelay, "initialBackoffMs", 1000L);
+        ReflectionTestUtils.setField(outboxRelay, "maxBackoffMs", 60000L);
+        ReflectionTestUtils.setField(outboxRelay, "sendTimeoutMs", 1000L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        outboxRelay.shutdown();
+    }
+
+    @Test
+    void relay_shouldSendStatusesOfOneOibInOrderAndStopAtTheFirstFailure() {
+        OutboxEvent blocked = status(1L, "85251569017", "BLOCKED");
+        OutboxEvent active = status(2L, "85251569017", "ACTIVE");
+        OutboxEvent failing = status(3L, "69435151530", "BLOCKED");
+        OutboxEvent held = status(4L, "69435151530", "ACTIVE");
+        when(outboxEventRepository.findDue(any(), any())).thenReturn(List.of(blocked, failing, active, held));
+        when(cardStatusProducer.sendCardStatus(any())).thenAnswer(invocation -> {
+            CardStatusMessage message = invocation.getArgument(0);
+            return message.getOib().equals("69435151530")
+                    ? CompletableFuture.failedFuture(new KafkaException("Expiring 1 record(s)"))
+                    : CompletableFuture.completedFuture(null);
+        });
+
+        outboxRelay.relay();
+
+        InOrder sends = inOrder(cardStatusProducer);
+        sends.verify(cardStatusProducer).sendCardStatus(new CardStatusMessage("85251569017", "BLOCKED"));
+        sends.verify(cardStatusProducer).sendCardStatus(new CardStatusMessage("85251569017", "ACTIVE"));
+        verify(cardStatusProducer).sendCardStatus(new CardStatusMessage("69435151530", "BLOCKED"));
+        verify(cardStatusProducer, never()).sendCardStatus(new CardStatusMessage("69435151530", "ACTIVE"));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxEventRepository).saveAll(List.of(failing));
+        assertThat(failing.getAttempts()).isEqualTo(1);
+        assertThat(failing.getNextAttemptAt()).isAfter(Instant.now());
+        assertThat(held.getAttempts()).isZero();
+    }
+
+    private static OutboxEvent status(Long id, String oib, String status) {
+        Instant now = Instant.now();
+        return OutboxEvent.builder()
+                .id(id)
+                .type(OutboxEventType.CARD_STATUS)
+                .oib(oib)
+                .payload("{\"oib\":\"" + oib + "\",\"status\":\"" + status + "\"}")
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.StatusAggregatesDTO;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.RBA_assignment.RBA_assignment.repository.StatusChange;
+import com.RBA_assignment.RBA_assignment.repository.StatusCount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static com.RBA_assignment.RBA_assignment.model.Status.ACTIVE;
+import static com.RBA_assignment.RBA_assignment.model.Status.BLOCKED;
+import static com.RBA_assignment.RBA_assignment.model.Status.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StatusAggregatesTest {
+
+    private ClientRepository clientRepository;
+    private StatusAggregates statusAggregates;
+
+    @BeforeEach
+    void setUp() {
+        clientRepository = mock(ClientRepository.class);
+        CardRepository cardRepository = mock(CardRepository.class);
+        when(clientRepository.countByStatus()).thenReturn(List.of(count(ACTIVE, 5), count(PENDING, 2)));
+        when(cardRepository.countByStatus()).thenReturn(List.of(count(ACTIVE, 3)));
+        statusAggregates = new StatusAggregates(clientRepository, cardRepository);
+        statusAggregates.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldMoveCountsByTheStatusesAnUpdateReplaced() {
+        statusAggregates.clientAdded(PENDING);
+        statusAggregates.clientStatusesChanged(List.of(changed(ACTIVE), changed(ACTIVE), changed(PENDING)), BLOCKED);
+        statusAggregates.cardStatusesChanged(List.of(changed(ACTIVE)), BLOCKED);
+        statusAggregates.cardRemoved(ACTIVE);
+
+        StatusAggregatesDTO aggregates = statusAggregates.snapshot();
+        assertThat(aggregates.getClients().getTotal()).isEqualTo(8);
+        assertThat(aggregates.getClients().getByStatus())
+                .containsEntry("active", 3L).containsEntry("pending", 2L).containsEntry("blocked", 3L)
+                .doesNotContainKey("none");
+        assertThat(aggregates.getCards().getTotal()).isEqualTo(2);
+        assertThat(aggregates.getCards().getByStatus()).containsEntry("active", 1L).containsEntry("blocked", 1L);
+    }
+
+    @Test
+    void shouldCountWritesOnlyOnceTheirTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        statusAggregates.clientAdded(ACTIVE);
+        statusAggregates.clientAdded(BLOCKED);
+        assertThat(statusAggregates.snapshot().getClients().getTotal()).isEqualTo(7);
+
+        List<TransactionSynchronization> committed = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        committed.getFirst().afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        committed.getLast().afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(statusAggregates.snapshot().getClients().getByStatus())
+                .containsEntry("active", 6L).containsEntry("blocked", 0L);
+    }
+
+    @Test
+    void shouldCorrectDriftOnReconcileButNotWhileWritesAreInFlight() {
+        when(clientRepository.countByStatus()).thenReturn(List.of(count(ACTIVE, 4), count(null, 1)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        statusAggregates.clientAdded(ACTIVE);
+        statusAggregates.reconcile();
+        assertThat(statusAggregates.snapshot().getClients().getByStatus()).containsEntry("active", 5L);
+
+        TransactionSynchronizationManager.getSynchronizations().getFirst()
+                .afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        statusAggregates.reconcile();
+        StatusAggregatesDTO.StatusCounts clients = statusAggregates.snapshot().getClients();
+        assertThat(clients.getTotal()).isEqualTo(5);
+        assertThat(clients.getByStatus()).containsEntry("active", 4L).containsEntry("pending", 0L).containsEntry("none", 1L);
+    }
+
+    @Test
+    void shouldNotCorrectWhenAWriteLandsWhileTheCountsAreRead() {
+        // The row was committed before the query ran, its update lands while it is running
+        when(clientRepository.countByStatus()).thenAnswer(invocation -> {
+            statusAggregates.clientAdded(ACTIVE);
+            return List.of(count(ACTIVE, 6), count(PENDING, 2));
+        });
+
+        statusAggregates.reconcile();
+
+        assertThat(statusAggregates.snapshot().getClients().getByStatus())
+                .containsEntry("active", 6L).containsEntry("pending", 2L);
+    }
+
+    private static StatusChange changed(Status from) {
+        return new StatusChange() {
+            @Override
+            public String getOib() {
+                return "85251569017";
+            }
+
+            @Override
+            public Status getStatus() {
+                return from;
+            }
+        };
+    }
+
+    private static StatusCount count(Status status, long total) {
+        return new StatusCount() {
+            @Override
+            public Status getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+}
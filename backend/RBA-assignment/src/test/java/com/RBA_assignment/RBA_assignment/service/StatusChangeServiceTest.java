@@ -0,0 +1,90 @@
+package com.RBA_assignment.RBA_assignment.service;
+
+import com.RBA_assignment.RBA_assignment.dto.ChangeEvent;
+import com.RBA_assignment.RBA_assignment.dto.ChangeEventBatch;
+import com.RBA_assignment.RBA_assignment.model.Status;
+import com.RBA_assignment.RBA_assignment.repository.CardRepository;
+import com.RBA_assignment.RBA_assignment.repository.ClientRepository;
+import com.RBA_assignment.RBA_assignment.repository.StatusChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.RBA_assignment.RBA_assignment.model.Status.ACTIVE;
+import static com.RBA_assignment.RBA_assignment.model.Status.BLOCKED;
+import static com.RBA_assignment.RBA_assignment.model.Status.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class StatusChangeServiceTest {
+
+    private CardRepository cardRepository;
+    private ClientRepository clientRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private StatusChangeService statusChangeService;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository = mock(CardRepository.class);
+        clientRepository = mock(ClientRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        LookupCache lookupCache = new LookupCache(new ConcurrentMapCacheManager(
+                LookupCache.CLIENTS_BY_OIB, LookupCache.CARDS_BY_OIB, LookupCache.CARD_OIBS_BY_NUMBER));
+        statusChangeService = new StatusChangeService(cardRepository, clientRepository, lookupCache,
+                new LookupIndex(clientRepository, cardRepository, null, false),
+                new StatusAggregates(clientRepository, cardRepository), eventPublisher);
+    }
+
+    @Test
+    void applyLatest_shouldPublishOnlyTheOibsTheUpdatesChanged() {
+        Map<String, Status> latest = new LinkedHashMap<>();
+        latest.put("85251569017", BLOCKED);
+        latest.put("69435151530", BLOCKED);
+        latest.put("12345678903", ACTIVE);
+        // 85251569017 moves card and client, 12345678903 only its client, 69435151530 nothing
+        when(cardRepository.updateStatusForOibs(eq("BLOCKED"), anyCollection())).thenReturn(List.of(changed("85251569017", ACTIVE)));
+        when(clientRepository.updateStatusForOibs(eq("BLOCKED"), anyCollection())).thenReturn(List.of(changed("85251569017", ACTIVE)));
+        when(cardRepository.updateStatusForOibs(eq("ACTIVE"), anyCollection())).thenReturn(List.of());
+        when(clientRepository.updateStatusForOibs(eq("ACTIVE"), anyCollection())).thenReturn(List.of(changed("12345678903", PENDING)));
+
+        statusChangeService.applyLatest(latest);
+
+        ArgumentCaptor<ChangeEventBatch> published = ArgumentCaptor.forClass(ChangeEventBatch.class);
+        verify(eventPublisher).publishEvent(published.capture());
+        assertThat(published.getValue().getEvents()).containsExactlyInAnyOrder(
+                ChangeEvent.statusChanged("85251569017", BLOCKED),
+                ChangeEvent.statusChanged("12345678903", ACTIVE));
+    }
+
+    @Test
+    void applyLatest_shouldPublishNothingWhenEveryStatusIsAlreadyCurrent() {
+        when(cardRepository.updateStatusForOibs(eq("BLOCKED"), anyCollection())).thenReturn(List.of());
+        when(clientRepository.updateStatusForOibs(eq("BLOCKED"), anyCollection())).thenReturn(List.of());
+
+        statusChangeService.applyLatest(Map.of("85251569017", BLOCKED));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static StatusChange changed(String oib, Status from) {
+        return new StatusChange() {
+            @Override
+            public String getOib() {
+                return oib;
+            }
+
+            @Override
+            public Status getStatus() {
+                return from;
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.RBA_assignment.RBA_assignment.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CardNumberGeneratorTest {
+
+    @Test
+    void generate_shouldProduceLuhnValidNumbersWithIssuerDigit() {
+        for (long sequence = 0; sequence < 10_000; sequence++) {
+            String cardNumber = CardNumberGenerator.generate(4, sequence);
+            assertThat(cardNumber).hasSize(16).startsWith("4").matches("^[1-9][0-9]{15}$");
+            assertThat(CardNumberGenerator.isLuhnValid(cardNumber)).isTrue();
+        }
+    }
+
+    @Test
+    void generate_shouldNeverRepeatForDistinctSequences() {
+        Set<String> seen = new HashSet<>();
+        for (long sequence = 0; sequence < 200_000; sequence++) {
+            assertThat(seen.add(CardNumberGenerator.generate(4, sequence))).isTrue();
+        }
+        long last = CardNumberGenerator.SEQUENCE_SPACE - 1;
+        assertThat(seen.add(CardNumberGenerator.generate(4, last))).isTrue();
+    }
+
+    @Test
+    void generate_shouldRejectSequenceOutsideNumberSpace() {
+        assertThatThrownBy(() -> CardNumberGenerator.generate(4, CardNumberGenerator.SEQUENCE_SPACE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CardNumberGenerator.generate(0, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void isLuhnValid_shouldRejectWrongCheckDigit() {
+        assertThat(CardNumberGenerator.isLuhnValid("4111111111111111")).isTrue();
+        assertThat(CardNumberGenerator.isLuhnValid("4111111111111112")).isFalse();
+    }
+}
@@ -0,0 +1,61 @@
+package com.RBA_assignment.RBA_assignment.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongLongHashMapTest {
+
+    @Test
+    void shouldMatchHashMapUnderRandomPutsAndRemoves() {
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // A small key range forces long probe chains, overwrites and removals inside them
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+            } else {
+                map.put(key, i);
+                expected.put(key, (long) i);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 5_000; key++) {
+            assertThat(map.get(key, -1)).isEqualTo(expected.getOrDefault(key, -1L));
+            assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+        }
+    }
+
+    @Test
+    void shouldGrowPastInitialCapacityAndKeepEveryEntry() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        for (long oib = 10_000_000_000L; oib < 10_000_100_000L; oib++) {
+            map.put(oib, oib * 2);
+        }
+
+        assertThat(map.size()).isEqualTo(100_000);
+        assertThat(map.get(10_000_054_321L, -1)).isEqualTo(20_000_108_642L);
+        assertThat(map.get(9_999_999_999L, -1)).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldStoreZeroKeyApartFromFreeSlots() {
+        LongLongHashMap map = new LongLongHashMap();
+        assertThat(map.containsKey(0)).isFalse();
+
+        map.put(0, 7);
+        assertThat(map.get(0, -1)).isEqualTo(7);
+        assertThat(map.size()).isEqualTo(1);
+
+        assertThat(map.remove(0)).isTrue();
+        assertThat(map.containsKey(0)).isFalse();
+        assertThat(map.size()).isZero();
+    }
+}
@@ -0,0 +1,111 @@
+package com.RBA_assignment.RBA_assignment.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NamePrefixIndexTest {
+    private static final String[] SYLLABLES = {"ho", "r", "va", "t", "ko", "ne", "vi", "ć", "an", "a"};
+
+    @Test
+    void shouldMatchBruteForceSearchUnderRandomAddsRenamesAndRemoves() {
+        // A tiny delta forces many merges with removed entries in the base
+        NamePrefixIndex index = new NamePrefixIndex(64);
+        Map<Long, String[]> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (long id = 1; id <= 2_000; id++) {
+            String[] names = {name(random), name(random)};
+            index.load(id, names[0], names[1]);
+            expected.put(id, names);
+        }
+        index.sort();
+
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(3_000);
+            String[] current = expected.get(id);
+            if (current != null && random.nextInt(3) == 0) {
+                index.remove(id, current[0], current[1]);
+                expected.remove(id);
+            } else {
+                if (current != null) {
+                    index.remove(id, current[0], current[1]);
+                }
+                String[] names = {name(random), name(random)};
+                index.add(id, names[0], names[1]);
+                expected.put(id, names);
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(expected.size() * 2);
+        for (String prefix : List.of("h", "ho", "hor", "va", "t", "an", "ko", "vić", "horvat", "x")) {
+            assertThat(index.search(prefix, 25)).containsExactly(bruteForce(expected, prefix, 25));
+        }
+    }
+
+    @Test
+    void shouldListNamesAlphabeticallyWithLastNamesFirst() {
+        NamePrefixIndex index = new NamePrefixIndex(16);
+        index.add(1, "Ana", "Horvatić");
+        index.add(2, "Horvat", "Kovač");
+        index.add(3, "Ivan", "Horvat");
+        index.add(4, "Marko", "Hor");
+        index.add(5, "Luka", "Horz");
+
+        assertThat(index.search("horvat", 10)).containsExactly(3, 2, 1);
+        assertThat(index.search("HOR", 2)).containsExactly(4, 3);
+        // Alphabetical, not by length: the shorter "horz" sorts after "horvatic"
+        assertThat(index.search("hor", 10)).containsExactly(4, 3, 2, 1, 5);
+        assertThat(index.search("kovac", 10)).containsExactly(2);
+    }
+
+    @Test
+    void shouldMatchLongPrefixesOnTheIndexedLetters() {
+        NamePrefixIndex index = new NamePrefixIndex(16);
+        index.add(1, "Ana", "Abcdefghijklmno");
+        index.add(2, "Ana", "Abcdefghijklxyz");
+
+        assertThat(index.search("abcdefghijklmn", 10)).containsExactly(1, 2);
+        assertThat(index.search("--", 10)).isEmpty();
+    }
+
+    private static String name(Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0, n = 1 + random.nextInt(4); i < n; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return name.toString();
+    }
+
+    // Every name entry, sorted as the index ranks them, and the first distinct ids
+    private static long[] bruteForce(Map<Long, String[]> clients, String prefix, int limit) {
+        String normalized = NamePrefixIndex.normalize(prefix);
+        List<Object[]> matches = new ArrayList<>();
+        clients.forEach((id, names) -> {
+            for (int field = 1; field >= 0; field--) {
+                String name = NamePrefixIndex.normalize(names[field]);
+                if (name.startsWith(normalized)) {
+                    matches.add(new Object[]{name, 1 - field, id});
+                }
+            }
+        });
+        matches.sort(Comparator.<Object[], String>comparing(m -> (String) m[0])
+                .thenComparing(m -> (Integer) m[1])
+                .thenComparing(m -> (Long) m[2]));
+        LinkedHashSet<Long> ids = new LinkedHashSet<>();
+        for (Object[] match : matches) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add((Long) match[2]);
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
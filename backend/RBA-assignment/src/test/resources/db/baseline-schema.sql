@@ -0,0 +1,11 @@
+-- Schema Hibernate's ddl-auto=update generated for the entities of the baseline release, as
+-- found on databases created before the Flyway migrations, with a few rows on it
+create table card (id bigint generated by default as identity, card_number varchar(255) not null, oib varchar(11) not null, status enum ('ACTIVE','APPROVED','BLOCKED','INACTIVE','PENDING','REJECTED'), primary key (id));
+create table client (id bigint generated by default as identity, first_name varchar(255), last_name varchar(255), oib varchar(11) not null, status enum ('ACTIVE','APPROVED','BLOCKED','INACTIVE','PENDING','REJECTED'), primary key (id));
+alter table if exists card add constraint UKby1nk98m2hq5onhl68bo09sc1 unique (card_number);
+alter table if exists card add constraint UKc6fr4rme35nsqaxt1ykrewi0v unique (oib);
+alter table if exists client add constraint UKciso784uabah7jsd0frn6i0hp unique (oib);
+
+insert into client (first_name, last_name, oib, status) values ('Ana', 'Horvat', '85251569017', 'ACTIVE');
+insert into client (first_name, last_name, oib, status) values ('Ivan', 'Kovač', '69435151530', 'PENDING');
+insert into card (card_number, oib, status) values ('4539578763621486', '85251569017', 'ACTIVE');
@@ -20,7 +20,7 @@ import { useEffect, useState } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 
 import { type Card as CardType } from '../types/card';
-import { type Client } from '../types/client';
+import { type Client, type ClientWithCard } from '../types/client';
 import { API_CONFIG } from '../constants/api';
 import { formatCardNumber } from '../utils/cardUtils';
 import StatusChip from './StatusChip';
@@ -35,33 +35,37 @@ const ClientCard = () => {
   const [loadingCard, setLoadingCard] = useState<boolean>(false);
   const [error, setError] = useState<string | null>(null);
 
-  // Step 1: Fetch client details first
-  const fetchClient = async () => {
+  // Client and card come from one request
+  const loadClientWithCard = async () => {
     if (!oib) return;
 
-    try {
-      setLoadingClient(true);
-      setError(null);
+    const response = await fetch(
+      `${API_CONFIG.BASE_URL}${API_CONFIG.ENDPOINTS.CLIENT_WITH_CARD(oib)}`,
+      {
+        method: 'GET',
+        headers: API_CONFIG.HEADERS,
+      }
+    );
 
-      console.log('Fetching client details...');
-      const response = await fetch(
-        `${API_CONFIG.BASE_URL}${API_CONFIG.ENDPOINTS.CLIENT_BY_OIB(oib)}`,
-        {
-          method: 'GET',
-          headers: API_CONFIG.HEADERS,
-        }
-      );
+    if (!response.ok) {
+      throw new Error(`Failed to fetch client: ${response.status}`);
+    }
 
-      if (!response.ok) {
-        throw new Error(`Failed to fetch client: ${response.status}`);
-      }
+    const data: ClientWithCard = await response.json();
+    const { card: cardData, ...clientData } = data;
+    setClient(clientData);
+    setCard(cardData);
 
-      const clientData: Client = await response.json();
-      setClient(clientData);
-      console.log('Client loaded successfully:', clientData);
+    if (!cardData) {
+      console.warn('No card found for OIB:', oib);
+    }
+  };
 
-      // Step 2: After client loads, fetch the card
-      await fetchCard();
+  const fetchClient = async () => {
+    try {
+      setLoadingClient(true);
+      setError(null);
+      await loadClientWithCard();
     } catch (err: any) {
       console.error('Error fetching client:', err);
       setError(err.message || 'Failed to fetch client');
@@ -70,44 +74,12 @@ const ClientCard = () => {
     }
   };
 
-  // Step 2: Fetch card details after client is loaded
+  // Refreshes the card after a status change; the client is reloaded with it
   const fetchCard = async () => {
-    if (!oib) return;
-
     try {
       setLoadingCard(true);
       setError(null);
-
-      console.log('Fetching card details...');
-      const response = await fetch(
-        `${API_CONFIG.BASE_URL}${API_CONFIG.ENDPOINTS.CARDS_BY_OIB(oib)}`,
-        {
-          method: 'GET',
-          headers: API_CONFIG.HEADERS,
-        }
-      );
-
-      if (!response.ok) {
-        throw new Error(`Failed to fetch card: ${response.status}`);
-      }
-
-      const data = await response.json();
-      console.log('Card loaded successfully:', data);
-
-      // Handle both array and single object responses
-      let cardData: CardType | null = null;
-
-      if (Array.isArray(data)) {
-        cardData = data.length > 0 ? data[0] : null;
-      } else if (data && typeof data === 'object' && data.cardNumber) {
-        cardData = data as CardType;
-      }
-
-      setCard(cardData);
-
-      if (!cardData) {
-        console.warn('No card found for OIB:', oib);
-      }
+      await loadClientWithCard();
     } catch (err: any) {
       console.error('Error fetching card:', err);
       setError(err.message || 'Failed to fetch card');
@@ -119,7 +91,7 @@ const ClientCard = () => {
   // Start the flow when component mounts
   useEffect(() => {
     if (oib) {
-      fetchClient(); // This will trigger fetchCard() after client loads
+      fetchClient();
     }
   }, [oib]);
 
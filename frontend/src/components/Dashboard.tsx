@@ -23,7 +23,7 @@ import {
   Search as SearchIcon,
   Clear as ClearIcon,
 } from '@mui/icons-material';
-import { useEffect, useState } from 'react';
+import { useEffect, useMemo, useRef, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 
 import {
@@ -31,8 +31,13 @@ import {
   type CreateClientRequest,
   type UpdateClientRequest,
 } from '../types/client';
+import { type ChangeEvent } from '../types/changeEvent';
 import { API_CONFIG } from '../constants/api';
-import { sortClientsByLastName, formatOIB } from '../utils/clientUtils';
+import {
+  sortClientsByLastName,
+  formatOIB,
+  applyChangeEvents,
+} from '../utils/clientUtils';
 import CreateClientModal from './CreateClientModal';
 import UpdateClientModal from './UpdateClientModal';
 import './dashboard.css';
@@ -41,38 +46,32 @@ import StatusChip from './StatusChip';
 const Dashboard = () => {
   const navigate = useNavigate();
   const [clients, setClients] = useState<Client[]>([]);
-  const [filteredClients, setFilteredClients] = useState<Client[]>([]);
   const [searchOib, setSearchOib] = useState<string>('');
   const [loading, setLoading] = useState<boolean>(true);
   const [error, setError] = useState<string | null>(null);
   const [createModalOpen, setCreateModalOpen] = useState<boolean>(false);
   const [updateModalOpen, setUpdateModalOpen] = useState<boolean>(false);
   const [selectedClient, setSelectedClient] = useState<Client | null>(null);
+  const pendingEvents = useRef<ChangeEvent[]>([]);
 
-  // Filter clients based on search
-  const filterClients = (searchTerm: string) => {
-    if (!searchTerm.trim()) {
-      setFilteredClients(clients);
-      return;
+  // Filter clients based on search; derived so live updates show up in the results too
+  const filteredClients = useMemo(() => {
+    if (!searchOib.trim()) {
+      return clients;
     }
-
-    const filtered = clients.filter(
-      (client) => client.oib.includes(searchTerm.replace(/\s/g, '')) // Remove spaces for search
+    return clients.filter(
+      (client) => client.oib.includes(searchOib.replace(/\s/g, '')) // Remove spaces for search
     );
-    setFilteredClients(filtered);
-  };
+  }, [clients, searchOib]);
 
   // Handle search input change
   const handleSearchChange = (event: React.ChangeEvent<HTMLInputElement>) => {
-    const value = event.target.value;
-    setSearchOib(value);
-    filterClients(value);
+    setSearchOib(event.target.value);
   };
 
   // Clear search
   const handleClearSearch = () => {
     setSearchOib('');
-    setFilteredClients(clients);
   };
 
   const fetchClients = async () => {
@@ -95,9 +94,7 @@ const Dashboard = () => {
       }
 
       const data: Client[] = await response.json();
-      const sortedClients = sortClientsByLastName(data);
-      setClients(sortedClients);
-      setFilteredClients(sortedClients); // Initialize filtered clients
+      setClients(sortClientsByLastName(data));
     } catch (err: any) {
       console.error('Error fetching clients:', err);
       setError(err.message || 'Failed to fetch clients');
@@ -211,6 +208,41 @@ const Dashboard = () => {
     fetchClients();
   }, []);
 
+  // Live updates: patch the list from change events instead of refetching it. Events are
+  // applied in batches so a bulk import does not re-render once per client
+  useEffect(() => {
+    const source = new EventSource(
+      `${API_CONFIG.BASE_URL}${API_CONFIG.ENDPOINTS.EVENTS}`
+    );
+    let connected = false;
+    source.onopen = () => {
+      // Events sent while disconnected (or evicted for falling behind) are lost; reload
+      if (connected) {
+        fetchClients();
+      }
+      connected = true;
+    };
+    source.onmessage = (message) => {
+      // Changes written together (a bulk import or issuance chunk) arrive as one array
+      const data = JSON.parse(message.data);
+      if (Array.isArray(data)) {
+        pendingEvents.current.push(...data);
+      } else {
+        pendingEvents.current.push(data);
+      }
+    };
+    const flush = window.setInterval(() => {
+      if (pendingEvents.current.length === 0) return;
+      const events = pendingEvents.current;
+      pendingEvents.current = [];
+      setClients((current) => applyChangeEvents(current, events));
+    }, 250);
+    return () => {
+      window.clearInterval(flush);
+      source.close();
+    };
+  }, []);
+
   if (loading) {
     return (
       <Box display="flex" justifyContent="center" mt={5} sx={{ width: '100%' }}>
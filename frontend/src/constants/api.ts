@@ -3,9 +3,11 @@ export const API_CONFIG = {
   ENDPOINTS: {
     CLIENTS: '/api/v1/clients',
     CLIENT_BY_OIB: (oib: string) => `/api/v1/clients/${oib}`,
+    CLIENT_WITH_CARD: (oib: string) => `/api/v1/clients/${oib}/with-card`,
     CARDS: '/api/v1/cards',
     CARDS_BY_OIB: (oib: string) => `/api/v1/cards/client/${oib}`,
     CHANGE_STATUS: '/api/v1/card-status',
+    EVENTS: '/api/v1/events',
   },
   HEADERS: {
     'Content-Type': 'application/json',
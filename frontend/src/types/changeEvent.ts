@@ -0,0 +1,18 @@
+import type { Status } from './card';
+
+export type ChangeEventType =
+  | 'CLIENT_SAVED'
+  | 'CLIENT_DELETED'
+  | 'CARD_SAVED'
+  | 'CARD_DELETED'
+  | 'STATUS_CHANGED';
+
+// Delta pushed by the server on /api/v1/events; fields not relevant to the type are omitted
+export interface ChangeEvent {
+  type: ChangeEventType;
+  oib: string;
+  cardNumber?: string;
+  firstName?: string;
+  lastName?: string;
+  status?: Status;
+}
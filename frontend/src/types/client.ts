@@ -1,4 +1,4 @@
-import type { Status } from './card';
+import type { Card, Status } from './card';
 
 export interface Client {
   firstName: string;
@@ -7,6 +7,11 @@ export interface Client {
   status: Status;
 }
 
+// Client with their card (null when none) from one request
+export interface ClientWithCard extends Client {
+  card: Card | null;
+}
+
 export interface CreateClientRequest {
   firstName: string;
   lastName: string;
@@ -1,4 +1,5 @@
 import { type Client } from '../types/client';
+import { type ChangeEvent } from '../types/changeEvent';
 import { Status, type Status as StatusType } from '../types/card';
 
 /**
@@ -61,6 +62,44 @@ export const sortClientsByLastName = (clients: Client[]): Client[] => {
   return [...clients].sort((a, b) => a.lastName.localeCompare(b.lastName));
 };
 
+/**
+ * Apply a batch of change events to a client list in one pass, keeping it sorted by last name
+ */
+export const applyChangeEvents = (
+  clients: Client[],
+  events: ChangeEvent[]
+): Client[] => {
+  const byOib = new Map(clients.map((client) => [client.oib, client]));
+  let added = false;
+  events.forEach((event) => {
+    const current = byOib.get(event.oib);
+    switch (event.type) {
+      case 'CLIENT_SAVED':
+        added = added || !current || current.lastName !== event.lastName;
+        byOib.set(event.oib, {
+          oib: event.oib,
+          firstName: event.firstName ?? '',
+          lastName: event.lastName ?? '',
+          status: event.status!,
+        });
+        break;
+      case 'CLIENT_DELETED':
+        byOib.delete(event.oib);
+        break;
+      case 'STATUS_CHANGED':
+        if (current) {
+          byOib.set(event.oib, { ...current, status: event.status! });
+        }
+        break;
+      default:
+      // Card events do not change what the client list shows
+    }
+  });
+  const patched = [...byOib.values()];
+  // Map order is the old sorted order; only new or renamed clients need a re-sort
+  return added ? sortClientsByLastName(patched) : patched;
+};
+
 /**
  * Format OIB for display (add spaces for readability)
  */